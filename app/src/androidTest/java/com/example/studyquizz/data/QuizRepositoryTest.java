@@ -0,0 +1,121 @@
+package com.example.studyquizz.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Instrumentation;
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.QuestionType;
+import com.example.studyquizz.model.Quiz;
+import com.example.studyquizz.model.QuizResult;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Chạy trên máy vì QuizStore ghi qua AtomicFile. Mỗi test dùng một thư mục store
+ * riêng trong cache, không đụng tới dữ liệu thật của app.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuizRepositoryTest {
+    private Instrumentation instrumentation;
+    private Context context;
+    private File dir;
+    private QuizRepository repository;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        dir = new File(context.getCacheDir(), "quiz-repository-test");
+        deleteRecursively(dir);
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(dir);
+    }
+
+    @Test
+    public void updateAfterDeleteDoesNotBringQuizBack() throws Exception {
+        Quiz quiz = new Quiz("Đề sẽ bị xóa", "", "Khoa học", null);
+        quiz.addQuestion(new Question("1 + 1 = ?", Arrays.asList("1", "2"), 1, QuestionType.MULTIPLE_CHOICE));
+        instrumentation.runOnMainSync(() -> {
+            repository = open();
+            repository.addQuiz(quiz);
+            repository.flush();
+            repository.deleteQuiz(quiz.getId());
+            repository.flush();
+            // Màn hình sửa vẫn giữ quiz cũ và bấm lưu sau khi quiz đã bị xóa
+            quiz.setTitle("Sửa sau khi xóa");
+            repository.updateQuiz(quiz);
+            repository.flush();
+            assertFalse(repository.containsQuiz(quiz.getId()));
+        });
+        QuizRepository.awaitIo();
+
+        instrumentation.runOnMainSync(() -> assertFalse(open().containsQuiz(quiz.getId())));
+    }
+
+    @Test
+    public void updateOfExistingQuizIsSaved() throws Exception {
+        Quiz quiz = new Quiz("Đề gốc", "", "Khoa học", null);
+        quiz.addQuestion(new Question("1 + 1 = ?", Arrays.asList("1", "2"), 1, QuestionType.MULTIPLE_CHOICE));
+        instrumentation.runOnMainSync(() -> {
+            repository = open();
+            repository.addQuiz(quiz);
+            quiz.setTitle("Đề đã sửa");
+            repository.updateQuiz(quiz);
+            repository.flush();
+        });
+        QuizRepository.awaitIo();
+
+        instrumentation.runOnMainSync(() -> {
+            QuizRepository reloaded = open();
+            assertTrue(reloaded.containsQuiz(quiz.getId()));
+            boolean renamed = false;
+            for (Quiz loaded : reloaded.getQuizzes()) {
+                renamed |= loaded.getId().equals(quiz.getId()) && "Đề đã sửa".equals(loaded.getTitle());
+            }
+            assertTrue(renamed);
+        });
+    }
+
+    @Test
+    public void savedResultIsWrittenWithoutFlush() throws Exception {
+        QuizResult result = new QuizResult("quiz-1", "Đề thi", 8, 2, 10, 80, 100, 1234L);
+        // Không gọi flush(): kết quả bài thi phải tự được ghi ngay
+        instrumentation.runOnMainSync(() -> open().saveResult(result));
+        QuizRepository.awaitIo();
+
+        instrumentation.runOnMainSync(() -> assertEquals(1, open().getHistoryForQuiz("quiz-1").size()));
+    }
+
+    private QuizRepository open() {
+        QuizStore store = new QuizStore(dir, new Gson(), StoreFormat.BINARY);
+        store.markInitialized();
+        return new QuizRepository(context, store);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
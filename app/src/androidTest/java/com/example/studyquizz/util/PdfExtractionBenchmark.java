@@ -0,0 +1,146 @@
+package com.example.studyquizz.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.studyquizz.model.Question;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.PDPageContentStream;
+import com.tom_roush.pdfbox.pdmodel.font.PDType1Font;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * So sánh trích chữ PDF tuần tự và song song trên cùng một file sinh sẵn.
+ * Chạy bằng {@code ./gradlew connectedAndroidTest}; thời gian in ra logcat với tag
+ * {@value #TAG}. Kết quả hai cách phải giống hệt nhau, còn tốc độ chỉ được báo lại vì
+ * nó phụ thuộc vào máy.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PdfExtractionBenchmark {
+    private static final String TAG = "PdfBenchmark";
+    private static final int PAGES = 240;
+    private static final int QUESTIONS_PER_PAGE = 5;
+    private static final int RUNS = 3;
+
+    private File pdf;
+
+    @Before
+    public void setUp() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        PdfSupport.ensureReady(context);
+        pdf = new File(context.getCacheDir(), "benchmark.pdf");
+        writeSamplePdf(pdf);
+    }
+
+    @After
+    public void tearDown() {
+        if (pdf != null) pdf.delete();
+    }
+
+    @Test
+    public void parallelMatchesSequential() throws IOException {
+        // Luồng song song cần ít nhất hai worker, tức là máy có từ ba nhân trở lên
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 3);
+
+        // Lượt đầu chỉ để làm nóng JIT và cache font
+        List<Question> sequential = extractSequential();
+        List<Question> parallel = extractParallel();
+        assertEquals(PAGES * QUESTIONS_PER_PAGE, sequential.size());
+        assertSameQuestions(sequential, parallel);
+
+        long sequentialMs = Long.MAX_VALUE;
+        long parallelMs = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = SystemClock.elapsedRealtime();
+            extractSequential();
+            sequentialMs = Math.min(sequentialMs, SystemClock.elapsedRealtime() - start);
+            start = SystemClock.elapsedRealtime();
+            extractParallel();
+            parallelMs = Math.min(parallelMs, SystemClock.elapsedRealtime() - start);
+        }
+        Log.i(TAG, String.format(Locale.ROOT, "%d pages, %d cores: sequential %d ms, parallel %d ms (%.2fx)",
+                PAGES, Runtime.getRuntime().availableProcessors(), sequentialMs, parallelMs,
+                sequentialMs / (double) Math.max(1, parallelMs)));
+    }
+
+    private List<Question> extractSequential() throws IOException {
+        List<Question> questions = new ArrayList<>();
+        try (PDDocument document = PDDocument.load(pdf)) {
+            ImportHelper.extractPages(document, collect(questions));
+        }
+        return questions;
+    }
+
+    private List<Question> extractParallel() throws IOException {
+        List<Question> questions = new ArrayList<>();
+        ImportHelper.extractPagesParallel(pdf, PAGES, collect(questions));
+        return questions;
+    }
+
+    private static ImportHelper.Listener collect(List<Question> questions) {
+        return new ImportHelper.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+            }
+
+            @Override
+            public void onQuestion(Question question) {
+                questions.add(question);
+            }
+        };
+    }
+
+    private static void assertSameQuestions(List<Question> expected, List<Question> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getContent(), actual.get(i).getContent());
+            assertEquals(expected.get(i).getOptions(), actual.get(i).getOptions());
+            assertEquals(expected.get(i).getCorrectIndex(), actual.get(i).getCorrectIndex());
+        }
+    }
+
+    // Mỗi trang có vài câu "Question n" với bốn đáp án A-D, đáp án đúng đánh dấu "*".
+    // Chỉ dùng chữ ASCII vì Helvetica chuẩn không mã hoá được tiếng Việt
+    private static void writeSamplePdf(File file) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            int number = 1;
+            for (int p = 0; p < PAGES; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 10);
+                    content.newLineAtOffset(72, 740);
+                    for (int q = 0; q < QUESTIONS_PER_PAGE; q++, number++) {
+                        content.showText("Question " + number + ": What is " + number + " + " + number + "?");
+                        content.newLineAtOffset(0, -14);
+                        for (int o = 0; o < 4; o++) {
+                            content.showText((char) ('A' + o) + ". " + (2 * number + o) + (o == 0 ? " *" : ""));
+                            content.newLineAtOffset(0, o == 3 ? -20 : -14);
+                        }
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
@@ -34,6 +35,8 @@ public class MainActivity extends AppCompatActivity implements QuizAdapter.OnQui
     private QuizRepository repository;
     private AuthManager authManager;
     private QuizAdapter adapter;
+    // Danh mục đang lọc, null khi đang xem danh sách chung
+    private String currentCategory;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -59,9 +62,13 @@ public class MainActivity extends AppCompatActivity implements QuizAdapter.OnQui
             return;
         }
 
-        repository = QuizRepository.getInstance(this);
-        setupViews();
-        loadData();
+        // Đọc dữ liệu quiz trên luồng I/O, không chặn lúc mở app
+        QuizRepository.getInstanceAsync(this, loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            repository = loaded;
+            setupViews();
+            loadData();
+        });
     }
 
     private void setupViews() {
@@ -121,15 +128,20 @@ public class MainActivity extends AppCompatActivity implements QuizAdapter.OnQui
         binding.cardSports.setOnClickListener(v -> filterByCategory("Thể thao"));
         binding.cardBiology.setOnClickListener(v -> filterByCategory("Sinh học"));
 
-        // See All Categories button - open MyQuizzesActivity
+        // See All Categories button - open MyQuizzesActivity, limited to the category being filtered
         if (binding.btnSeeAllCategories != null) {
             binding.btnSeeAllCategories.setOnClickListener(v -> {
-                startActivity(new Intent(this, com.example.studyquizz.ui.MyQuizzesActivity.class));
+                Intent intent = new Intent(this, com.example.studyquizz.ui.MyQuizzesActivity.class);
+                if (currentCategory != null) {
+                    intent.putExtra(MyQuizzesActivity.EXTRA_CATEGORY, currentCategory);
+                }
+                startActivity(intent);
             });
         }
     }
 
     private void showAllQuizzes() {
+        currentCategory = null;
         // Hide categories grid
         binding.categoriesGrid.setVisibility(View.GONE);
         // Show quiz list section title
@@ -142,28 +154,34 @@ public class MainActivity extends AppCompatActivity implements QuizAdapter.OnQui
     }
 
     private void filterByCategory(String category) {
+        currentCategory = category;
         // Hide categories grid
         binding.categoriesGrid.setVisibility(View.GONE);
         // Show quiz list section title
         binding.quizListSectionTitle.setVisibility(View.VISIBLE);
         
-        List<Quiz> allQuizzes = repository.getQuizzes();
-        List<Quiz> filteredQuizzes = new java.util.ArrayList<>();
-        
-        for (Quiz quiz : allQuizzes) {
-            String quizCategory = quiz.getCustomCategory() != null && !quiz.getCustomCategory().isEmpty()
-                    ? quiz.getCustomCategory() : quiz.getCategory();
-            if (category.equals(quizCategory)) {
-                filteredQuizzes.add(quiz);
-            }
-        }
+        List<Quiz> filteredQuizzes = repository.getQuizzesByCategory(category);
         
         adapter.submit(filteredQuizzes);
         binding.recyclerQuizzes.setVisibility(filteredQuizzes.isEmpty() ? View.GONE : View.VISIBLE);
         binding.emptyView.setVisibility(filteredQuizzes.isEmpty() ? View.VISIBLE : View.GONE);
     }
 
+    // Số quiz của mỗi danh mục lấy thẳng từ chỉ mục danh mục của repository
+    private void bindCategoryCounts() {
+        bindCategoryCount(binding.txtScienceCount, "Khoa học");
+        bindCategoryCount(binding.txtGeographyCount, "Địa lý");
+        bindCategoryCount(binding.txtSportsCount, "Thể thao");
+        bindCategoryCount(binding.txtBiologyCount, "Sinh học");
+    }
+
+    private void bindCategoryCount(TextView view, String category) {
+        view.setText(getString(R.string.category_quiz_count, repository.getQuizCountForCategory(category)));
+    }
+
     private void loadData() {
+        currentCategory = null;
+        bindCategoryCounts();
         List<Quiz> quizzes = repository.getQuizzes();
         // Show only first 3 quizzes on main screen
         List<Quiz> limitedQuizzes = new java.util.ArrayList<>();
@@ -181,7 +199,7 @@ public class MainActivity extends AppCompatActivity implements QuizAdapter.OnQui
     @Override
     protected void onResume() {
         super.onResume();
-        if (authManager.isLoggedIn()) {
+        if (authManager.isLoggedIn() && repository != null) {
             loadData();
         }
     }
@@ -235,7 +253,7 @@ public class MainActivity extends AppCompatActivity implements QuizAdapter.OnQui
     }
 
     private void startPlay(Quiz quiz, String mode) {
-        if (quiz.getQuestions().isEmpty()) {
+        if (quiz.getQuestionCount() == 0) {
             Toast.makeText(this, R.string.no_question_warning, Toast.LENGTH_SHORT).show();
             return;
         }
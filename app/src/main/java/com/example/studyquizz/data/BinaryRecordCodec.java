@@ -0,0 +1,500 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.QuestionType;
+import com.example.studyquizz.model.Quiz;
+import com.example.studyquizz.model.QuizResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary records: a magic byte and a format version, then tagged fields
+ * in the style of protocol buffers. Numbers are varints, option texts of a quiz
+ * are stored once in a string table, and answer lists are packed.
+ *
+ * Every field carries its number and wire type, so readers skip fields they do
+ * not know and missing fields keep their defaults; new fields only need a new
+ * number. VERSION changes only for incompatible layouts.
+ */
+class BinaryRecordCodec implements RecordCodec {
+    // Cannot start a JSON document, which begins with '{', '[' or whitespace
+    static final int MAGIC = 0xB1;
+    private static final int VERSION = 1;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_BYTES = 2;
+
+    // Quiz header
+    private static final int QUIZ_ID = 1;
+    private static final int QUIZ_TITLE = 2;
+    private static final int QUIZ_DESCRIPTION = 3;
+    private static final int QUIZ_CATEGORY = 4;
+    private static final int QUIZ_CUSTOM_CATEGORY = 5;
+    private static final int QUIZ_DURATION = 6;
+    // Question list
+    private static final int LIST_STRING = 1;
+    private static final int LIST_QUESTION = 2;
+    // Question
+    private static final int QUESTION_ID = 1;
+    private static final int QUESTION_CONTENT = 2;
+    private static final int QUESTION_OPTIONS = 3;
+    private static final int QUESTION_CORRECT = 4;
+    private static final int QUESTION_TYPE = 5;
+    // Option text inline, for questions stored one by one outside a string table
+    private static final int QUESTION_OPTION_TEXT = 6;
+    private static final int QUESTION_FINGERPRINT = 7;
+    // Result
+    private static final int RESULT_QUIZ_ID = 1;
+    private static final int RESULT_QUIZ_TITLE = 2;
+    private static final int RESULT_CORRECT = 3;
+    private static final int RESULT_WRONG = 4;
+    private static final int RESULT_TOTAL = 5;
+    private static final int RESULT_SCORE = 6;
+    private static final int RESULT_COMPLETION = 7;
+    private static final int RESULT_TIMESTAMP = 8;
+    private static final int RESULT_DURATION = 9;
+    private static final int RESULT_ANSWERS = 10;
+    // Snapshot
+    private static final int SNAPSHOT_GENERATION = 1;
+    private static final int SNAPSHOT_RESULT = 2;
+
+    private final OptionPool optionPool;
+
+    BinaryRecordCodec(OptionPool optionPool) {
+        this.optionPool = optionPool;
+    }
+
+    static boolean isBinary(byte[] payload) {
+        return payload.length > 0 && (payload[0] & 0xFF) == MAGIC;
+    }
+
+    @Override
+    public byte[] encodeHeader(Quiz quiz) {
+        Writer out = newRecord();
+        out.string(QUIZ_ID, quiz.getId());
+        out.string(QUIZ_TITLE, quiz.getTitle());
+        out.string(QUIZ_DESCRIPTION, quiz.getDescription());
+        out.string(QUIZ_CATEGORY, quiz.getCategory());
+        out.string(QUIZ_CUSTOM_CATEGORY, quiz.getCustomCategory());
+        // Always written: 0 is a real duration, unlike the model's default of 15
+        out.requiredVarint(QUIZ_DURATION, quiz.getDurationMinutes());
+        return out.toByteArray();
+    }
+
+    @Override
+    public Quiz decodeHeader(byte[] payload) {
+        Reader in = openRecord(payload);
+        Quiz quiz = new Quiz();
+        // Older records left a duration of 0 out
+        quiz.setDurationMinutes(0);
+        while (in.hasMore()) {
+            int tag = in.tag();
+            switch (tag >>> 3) {
+                case QUIZ_ID: quiz.setId(in.string()); break;
+                case QUIZ_TITLE: quiz.setTitle(in.string()); break;
+                case QUIZ_DESCRIPTION: quiz.setDescription(in.string()); break;
+                case QUIZ_CATEGORY: quiz.setCategory(in.string()); break;
+                case QUIZ_CUSTOM_CATEGORY: quiz.setCustomCategory(in.string()); break;
+                case QUIZ_DURATION: quiz.setDurationMinutes((int) in.varint()); break;
+                default: in.skip(tag);
+            }
+        }
+        return quiz;
+    }
+
+    @Override
+    public byte[] encodeQuestions(List<Question> questions) {
+        // Options such as "Đúng"/"Sai" repeat across questions and are written once
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Question question : questions) {
+            if (question.getOptions() == null) continue;
+            for (String option : question.getOptions()) {
+                if (option != null && !strings.containsKey(option)) {
+                    strings.put(option, strings.size());
+                }
+            }
+        }
+        Writer out = newRecord();
+        for (String string : strings.keySet()) {
+            out.string(LIST_STRING, string);
+        }
+        Writer message = new Writer();
+        for (Question question : questions) {
+            message.reset();
+            message.string(QUESTION_ID, question.getId());
+            message.string(QUESTION_CONTENT, question.getContent());
+            if (question.getOptions() != null && !question.getOptions().isEmpty()) {
+                Writer indexes = new Writer();
+                for (String option : question.getOptions()) {
+                    // 0 is a null option, table entries start at 1
+                    indexes.rawVarint(option != null ? strings.get(option) + 1 : 0);
+                }
+                message.bytes(QUESTION_OPTIONS, indexes.toByteArray());
+            }
+            message.signed(QUESTION_CORRECT, question.getCorrectIndex());
+            if (question.getType() != null) {
+                message.varint(QUESTION_TYPE, question.getType().ordinal() + 1);
+            }
+            message.varint(QUESTION_FINGERPRINT, question.getFingerprint());
+            out.bytes(LIST_QUESTION, message.toByteArray());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public List<Question> decodeQuestions(byte[] payload) {
+        Reader in = openRecord(payload);
+        List<String> strings = new ArrayList<>();
+        List<Question> questions = new ArrayList<>();
+        while (in.hasMore()) {
+            int tag = in.tag();
+            switch (tag >>> 3) {
+                case LIST_STRING: strings.add(optionPool.intern(in.string())); break;
+                case LIST_QUESTION: questions.add(readQuestion(new Reader(in.bytes()), strings)); break;
+                default: in.skip(tag);
+            }
+        }
+        return questions;
+    }
+
+    /** One self-contained question, as stored in a {@link QuestionBank}. */
+    byte[] encodeQuestion(Question question) {
+        Writer out = new Writer();
+        out.string(QUESTION_ID, question.getId());
+        out.string(QUESTION_CONTENT, question.getContent());
+        if (question.getOptions() != null) {
+            for (String option : question.getOptions()) {
+                // Bank options are never null, the repository normalizes them to ""
+                out.string(QUESTION_OPTION_TEXT, option != null ? option : "");
+            }
+        }
+        out.signed(QUESTION_CORRECT, question.getCorrectIndex());
+        if (question.getType() != null) {
+            out.varint(QUESTION_TYPE, question.getType().ordinal() + 1);
+        }
+        out.varint(QUESTION_FINGERPRINT, question.getFingerprint());
+        return out.toByteArray();
+    }
+
+    Question decodeQuestion(byte[] record) {
+        return readQuestion(new Reader(record), null);
+    }
+
+    private Question readQuestion(Reader in, List<String> strings) {
+        Question question = new Question();
+        while (in.hasMore()) {
+            int tag = in.tag();
+            switch (tag >>> 3) {
+                case QUESTION_ID: question.setId(in.string()); break;
+                case QUESTION_CONTENT: question.setContent(in.string()); break;
+                case QUESTION_OPTIONS: {
+                    Reader indexes = new Reader(in.bytes());
+                    List<String> options = new ArrayList<>();
+                    while (indexes.hasMore()) {
+                        int index = (int) indexes.varint();
+                        options.add(index == 0 ? null : strings.get(index - 1));
+                    }
+                    question.setOptions(options);
+                    break;
+                }
+                case QUESTION_OPTION_TEXT: question.getOptions().add(optionPool.intern(in.string())); break;
+                case QUESTION_CORRECT: question.setCorrectIndex((int) in.signed()); break;
+                case QUESTION_TYPE: {
+                    int ordinal = (int) in.varint() - 1;
+                    QuestionType[] types = QuestionType.values();
+                    // A type added by a newer version reads as unknown
+                    question.setType(ordinal >= 0 && ordinal < types.length ? types[ordinal] : null);
+                    break;
+                }
+                case QUESTION_FINGERPRINT: question.setFingerprint(in.varint()); break;
+                default: in.skip(tag);
+            }
+        }
+        return question;
+    }
+
+    @Override
+    public byte[] encodeResult(QuizResult result) {
+        Writer out = newRecord();
+        writeResult(out, result);
+        return out.toByteArray();
+    }
+
+    private void writeResult(Writer out, QuizResult result) {
+        out.string(RESULT_QUIZ_ID, result.getQuizId());
+        out.string(RESULT_QUIZ_TITLE, result.getQuizTitle());
+        out.varint(RESULT_CORRECT, result.getCorrectCount());
+        out.varint(RESULT_WRONG, result.getWrongCount());
+        out.varint(RESULT_TOTAL, result.getTotal());
+        out.varint(RESULT_SCORE, result.getScore());
+        out.varint(RESULT_COMPLETION, result.getCompletionRate());
+        out.varint(RESULT_TIMESTAMP, result.getTimestamp());
+        out.varint(RESULT_DURATION, result.getDuration());
+        int answerCount = result.getAnswerCount();
+        if (answerCount > 0) {
+            Writer packed = new Writer();
+            for (int i = 0; i < answerCount; i++) {
+                // -1 (unanswered) is common, so zigzag keeps it to one byte
+                packed.rawSigned(result.getAnswerAt(i));
+            }
+            out.bytes(RESULT_ANSWERS, packed.toByteArray());
+        }
+    }
+
+    @Override
+    public QuizResult decodeResult(byte[] payload) {
+        return readResult(openRecord(payload));
+    }
+
+    private QuizResult readResult(Reader in) {
+        String quizId = null;
+        String quizTitle = null;
+        int correct = 0, wrong = 0, total = 0, score = 0, completion = 0;
+        long timestamp = 0, duration = 0;
+        byte[] answers = null;
+        while (in.hasMore()) {
+            int tag = in.tag();
+            switch (tag >>> 3) {
+                case RESULT_QUIZ_ID: quizId = in.string(); break;
+                case RESULT_QUIZ_TITLE: quizTitle = in.string(); break;
+                case RESULT_CORRECT: correct = (int) in.varint(); break;
+                case RESULT_WRONG: wrong = (int) in.varint(); break;
+                case RESULT_TOTAL: total = (int) in.varint(); break;
+                case RESULT_SCORE: score = (int) in.varint(); break;
+                case RESULT_COMPLETION: completion = (int) in.varint(); break;
+                case RESULT_TIMESTAMP: timestamp = in.varint(); break;
+                case RESULT_DURATION: duration = in.varint(); break;
+                case RESULT_ANSWERS: {
+                    byte[] bytes = in.bytes();
+                    // Every answer takes at least one byte, and usually exactly one
+                    byte[] unpacked = new byte[bytes.length];
+                    int count = 0;
+                    Reader packed = new Reader(bytes);
+                    while (packed.hasMore()) {
+                        unpacked[count++] = (byte) packed.signed();
+                    }
+                    answers = count == unpacked.length ? unpacked : Arrays.copyOf(unpacked, count);
+                    break;
+                }
+                default: in.skip(tag);
+            }
+        }
+        return new QuizResult(quizId, quizTitle, correct, wrong, total, score, completion,
+                timestamp, duration, answers);
+    }
+
+    // Results are written one by one, so neither side holds the encoded snapshot
+    @Override
+    public void writeSnapshot(OutputStream out, long generation, Map<String, List<QuizResult>> history) throws IOException {
+        Writer header = newRecord();
+        header.varint(SNAPSHOT_GENERATION, generation);
+        header.writeTo(out);
+        Writer message = new Writer();
+        Writer frame = new Writer();
+        for (List<QuizResult> results : history.values()) {
+            for (QuizResult result : results) {
+                message.reset();
+                writeResult(message, result);
+                frame.reset();
+                frame.bytes(SNAPSHOT_RESULT, message.toByteArray());
+                frame.writeTo(out);
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    public long readSnapshot(InputStream in, Map<String, List<QuizResult>> history) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        checkHeader(data.readUnsignedByte(), (int) readVarint(data));
+        long generation = 0;
+        while (true) {
+            int first = data.read();
+            if (first < 0) break;
+            int tag = (int) readVarint(data, first);
+            if ((tag & 7) == WIRE_VARINT) {
+                long value = readVarint(data);
+                if (tag >>> 3 == SNAPSHOT_GENERATION) {
+                    generation = value;
+                }
+            } else if ((tag & 7) == WIRE_BYTES) {
+                byte[] bytes = new byte[checkLength(readVarint(data))];
+                data.readFully(bytes);
+                if (tag >>> 3 != SNAPSHOT_RESULT) continue;
+                QuizResult result = readResult(new Reader(bytes));
+                if (result.getQuizId() == null) continue;
+                List<QuizResult> list = history.get(result.getQuizId());
+                if (list == null) {
+                    list = new ArrayList<>();
+                    history.put(result.getQuizId(), list);
+                }
+                list.add(result);
+            } else {
+                throw new IOException("Unknown wire type " + (tag & 7));
+            }
+        }
+        return generation;
+    }
+
+    private static Writer newRecord() {
+        Writer out = new Writer();
+        out.write(MAGIC);
+        out.rawVarint(VERSION);
+        return out;
+    }
+
+    private static Reader openRecord(byte[] payload) {
+        Reader in = new Reader(payload);
+        checkHeader(in.rawByte(), (int) in.varint());
+        return in;
+    }
+
+    private static void checkHeader(int magic, int version) {
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("Not a binary record");
+        }
+        if (version > VERSION) {
+            throw new IllegalArgumentException("Unsupported record version " + version);
+        }
+    }
+
+    private static int checkLength(long length) {
+        if (length < 0 || length > RecordLog.MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException("Bad field length " + length);
+        }
+        return (int) length;
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) throw new EOFException();
+        return readVarint(in, first);
+    }
+
+    private static long readVarint(InputStream in, int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            b = in.read();
+            if (b < 0) throw new EOFException();
+            if (shift > 63) throw new IOException("Varint too long");
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    /** Appends tagged fields; null strings and zero numbers are left out unless required. */
+    private static class Writer extends ByteArrayOutputStream {
+        void string(int field, String value) {
+            if (value == null) return;
+            bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void bytes(int field, byte[] value) {
+            rawVarint(field << 3 | WIRE_BYTES);
+            rawVarint(value.length);
+            write(value, 0, value.length);
+        }
+
+        void varint(int field, long value) {
+            if (value == 0) return;
+            requiredVarint(field, value);
+        }
+
+        void requiredVarint(int field, long value) {
+            rawVarint(field << 3 | WIRE_VARINT);
+            rawVarint(value);
+        }
+
+        void signed(int field, long value) {
+            if (value == 0) return;
+            rawVarint(field << 3 | WIRE_VARINT);
+            rawSigned(value);
+        }
+
+        void rawSigned(long value) {
+            rawVarint((value << 1) ^ (value >> 63));
+        }
+
+        void rawVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+
+    /** Reads tagged fields from one record or nested message. */
+    private static class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return pos < data.length;
+        }
+
+        int tag() {
+            return (int) varint();
+        }
+
+        int rawByte() {
+            if (pos >= data.length) throw new IllegalArgumentException("Truncated record");
+            return data[pos++] & 0xFF;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = rawByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Varint too long");
+        }
+
+        long signed() {
+            long raw = varint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        byte[] bytes() {
+            int length = checkLength(varint());
+            if (length > data.length - pos) throw new IllegalArgumentException("Truncated record");
+            byte[] value = new byte[length];
+            System.arraycopy(data, pos, value, 0, length);
+            pos += length;
+            return value;
+        }
+
+        String string() {
+            return new String(bytes(), StandardCharsets.UTF_8);
+        }
+
+        void skip(int tag) {
+            switch (tag & 7) {
+                case WIRE_VARINT: varint(); break;
+                case WIRE_BYTES: pos += checkLength(varint()); break;
+                default: throw new IllegalArgumentException("Unknown wire type " + (tag & 7));
+            }
+            if (pos > data.length) throw new IllegalArgumentException("Truncated record");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.studyquizz.data;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index from question fingerprints to the quizzes holding them, so an
+ * import can tell in constant time whether a question already exists.
+ */
+class FingerprintIndex {
+    // Value is the id of the one quiz holding the fingerprint, or a Set of ids when
+    // several do; a Set per entry would cost megabytes on a 100k-question corpus
+    private final Map<Long, Object> owners = new HashMap<>();
+    // Fingerprints each quiz was indexed under, to undo them on update or delete
+    private final Map<String, long[]> quizFingerprints = new HashMap<>();
+
+    void put(String quizId, long[] fingerprints) {
+        remove(quizId);
+        quizFingerprints.put(quizId, fingerprints);
+        for (long fingerprint : fingerprints) {
+            Object owner = owners.get(fingerprint);
+            if (owner == null) {
+                owners.put(fingerprint, quizId);
+            } else if (owner instanceof String) {
+                if (!owner.equals(quizId)) {
+                    Set<String> ids = new HashSet<>();
+                    ids.add((String) owner);
+                    ids.add(quizId);
+                    owners.put(fingerprint, ids);
+                }
+            } else {
+                castSet(owner).add(quizId);
+            }
+        }
+    }
+
+    void remove(String quizId) {
+        long[] fingerprints = quizFingerprints.remove(quizId);
+        if (fingerprints == null) return;
+        for (long fingerprint : fingerprints) {
+            Object owner = owners.get(fingerprint);
+            if (owner instanceof Set) {
+                Set<String> ids = castSet(owner);
+                ids.remove(quizId);
+                if (ids.size() == 1) {
+                    owners.put(fingerprint, ids.iterator().next());
+                }
+            } else if (quizId.equals(owner)) {
+                owners.remove(fingerprint);
+            }
+        }
+    }
+
+    /** Whether a quiz other than {@code exceptQuizId} (may be null) holds {@code fingerprint}. */
+    boolean contains(long fingerprint, String exceptQuizId) {
+        Object owner = owners.get(fingerprint);
+        if (owner == null) return false;
+        if (owner instanceof String) return !owner.equals(exceptQuizId);
+        Set<String> ids = castSet(owner);
+        return ids.size() > 1 || !ids.contains(exceptQuizId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> castSet(Object owner) {
+        return (Set<String>) owner;
+    }
+}
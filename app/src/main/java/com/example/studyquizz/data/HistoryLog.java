@@ -0,0 +1,202 @@
+package com.example.studyquizz.data;
+
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.example.studyquizz.model.QuizResult;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Write-ahead log for quiz results.
+ * Results arrive in batches from {@link QuizStore}'s write batches, and each batch
+ * is a single fsync'd append to the current log segment. Once a segment holds
+ * enough records it is sealed and a background compactor folds it into the
+ * snapshot, so startup only replays the segments written since.
+ *
+ * Segments are numbered; the snapshot remembers the last segment it covers, so a
+ * crash at any point of a compaction neither loses nor duplicates results.
+ */
+class HistoryLog {
+    private static final String TAG = "HistoryLog";
+    private static final String FILE_SNAPSHOT = "history.snapshot";
+    private static final String SEGMENT_PREFIX = "history.";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int COMPACT_THRESHOLD = 500;
+
+    private final File dir;
+    private final RecordCodec codec;
+    private final AtomicFile snapshotFile;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "history-compactor");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private long generation = 1;
+    private RecordLog segment;
+    private int recordsInSegment;
+
+    HistoryLog(File dir, RecordCodec codec) {
+        this.dir = dir;
+        this.codec = codec;
+        snapshotFile = new AtomicFile(new File(dir, FILE_SNAPSHOT));
+        segment = new RecordLog(segmentFile(generation));
+    }
+
+    /**
+     * Loads the snapshot and replays every newer segment on top of it.
+     * Must be called once before the first {@link #appendAll}.
+     */
+    synchronized Map<String, List<QuizResult>> load() {
+        Snapshot snapshot = readSnapshot();
+        Map<String, List<QuizResult>> history = snapshot.history;
+        long lastGeneration = snapshot.generation;
+        for (Map.Entry<Long, File> entry : listSegments().entrySet()) {
+            long segmentGeneration = entry.getKey();
+            if (segmentGeneration <= snapshot.generation) {
+                // Left over by a compaction that finished its snapshot but not the cleanup
+                entry.getValue().delete();
+                continue;
+            }
+            List<byte[]> records = readSegment(new RecordLog(entry.getValue()));
+            replay(records, history);
+            lastGeneration = segmentGeneration;
+            recordsInSegment = records.size();
+        }
+        generation = Math.max(lastGeneration, snapshot.generation + 1);
+        segment = new RecordLog(segmentFile(generation));
+        if (recordsInSegment >= COMPACT_THRESHOLD) {
+            sealAndCompact();
+        }
+        return history;
+    }
+
+    synchronized void appendAll(List<QuizResult> results) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(results.size());
+        for (QuizResult result : results) {
+            payloads.add(encode(result));
+        }
+        segment.appendAll(payloads);
+        recordsInSegment += payloads.size();
+        if (recordsInSegment >= COMPACT_THRESHOLD) {
+            sealAndCompact();
+        }
+    }
+
+    // Switches appends to a fresh segment and folds the sealed ones into the snapshot
+    private void sealAndCompact() {
+        long sealed = generation;
+        generation++;
+        segment = new RecordLog(segmentFile(generation));
+        recordsInSegment = 0;
+        compactor.execute(() -> compact(sealed));
+    }
+
+    private void compact(long upToGeneration) {
+        Snapshot snapshot = readSnapshot();
+        for (Map.Entry<Long, File> entry : listSegments().entrySet()) {
+            long segmentGeneration = entry.getKey();
+            if (segmentGeneration > snapshot.generation && segmentGeneration <= upToGeneration) {
+                replay(readSegment(new RecordLog(entry.getValue())), snapshot.history);
+            }
+        }
+        snapshot.generation = upToGeneration;
+        FileOutputStream stream = null;
+        try {
+            stream = snapshotFile.startWrite();
+            // Not closed by the codec: AtomicFile.finishWrite syncs and closes the stream
+            codec.writeSnapshot(new BufferedOutputStream(stream), snapshot.generation, snapshot.history);
+            snapshotFile.finishWrite(stream);
+        } catch (IOException e) {
+            Log.e(TAG, "Compaction failed", e);
+            if (stream != null) snapshotFile.failWrite(stream);
+            return;
+        }
+        for (Map.Entry<Long, File> entry : listSegments().headMap(upToGeneration, true).entrySet()) {
+            entry.getValue().delete();
+        }
+    }
+
+    private Snapshot readSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.history = new HashMap<>();
+        if (!snapshotFile.getBaseFile().exists()) return snapshot;
+        try (InputStream in = snapshotFile.openRead()) {
+            snapshot.generation = codec.readSnapshot(in, snapshot.history);
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Cannot read history snapshot", e);
+            snapshot.generation = 0;
+            snapshot.history.clear();
+        }
+        return snapshot;
+    }
+
+    private TreeMap<Long, File> listSegments() {
+        TreeMap<Long, File> segments = new TreeMap<>();
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) return segments;
+        for (File file : files) {
+            String name = file.getName();
+            String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+            try {
+                segments.put(Long.parseLong(number), file);
+            } catch (NumberFormatException e) {
+                // Not a segment
+            }
+        }
+        return segments;
+    }
+
+    private List<byte[]> readSegment(RecordLog log) {
+        try {
+            return log.readAll();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot read " + log.getFile().getName(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    private void replay(List<byte[]> records, Map<String, List<QuizResult>> history) {
+        for (byte[] payload : records) {
+            QuizResult result;
+            try {
+                result = codec.decodeResult(payload);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Skipping unreadable result", e);
+                continue;
+            }
+            if (result == null || result.getQuizId() == null) continue;
+            List<QuizResult> list = history.get(result.getQuizId());
+            if (list == null) {
+                list = new ArrayList<>();
+                history.put(result.getQuizId(), list);
+            }
+            list.add(result);
+        }
+    }
+
+    private File segmentFile(long segmentGeneration) {
+        return new File(dir, SEGMENT_PREFIX + segmentGeneration + SEGMENT_SUFFIX);
+    }
+
+    private byte[] encode(QuizResult result) {
+        return codec.encodeResult(result);
+    }
+
+    private static class Snapshot {
+        // Last segment already folded into this snapshot
+        long generation;
+        Map<String, List<QuizResult>> history;
+    }
+}
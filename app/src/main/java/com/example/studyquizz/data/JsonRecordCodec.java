@@ -0,0 +1,144 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.Quiz;
+import com.example.studyquizz.model.QuizResult;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Gson records, as written by the first versions of the store. */
+class JsonRecordCodec implements RecordCodec {
+    private static final Type QUESTION_LIST_TYPE = new TypeToken<List<Question>>() {}.getType();
+
+    private final Gson gson;
+    private final Gson headerGson;
+    private final OptionPool optionPool;
+
+    JsonRecordCodec(Gson gson, OptionPool optionPool) {
+        this.gson = gson;
+        this.optionPool = optionPool;
+        headerGson = gson.newBuilder()
+                .addSerializationExclusionStrategy(new ExclusionStrategy() {
+                    @Override
+                    public boolean shouldSkipField(FieldAttributes f) {
+                        return f.getDeclaringClass() == Quiz.class && f.getName().equals("questions");
+                    }
+
+                    @Override
+                    public boolean shouldSkipClass(Class<?> clazz) {
+                        return false;
+                    }
+                })
+                .create();
+    }
+
+    @Override
+    public byte[] encodeHeader(Quiz quiz) {
+        return JsonStreams.toBytes(headerGson, quiz, Quiz.class);
+    }
+
+    @Override
+    public Quiz decodeHeader(byte[] payload) {
+        return JsonStreams.fromBytes(gson, payload, Quiz.class);
+    }
+
+    @Override
+    public byte[] encodeQuestions(List<Question> questions) {
+        return JsonStreams.toBytes(gson, questions, QUESTION_LIST_TYPE);
+    }
+
+    @Override
+    public List<Question> decodeQuestions(byte[] payload) {
+        List<Question> questions = JsonStreams.fromBytes(gson, payload, QUESTION_LIST_TYPE);
+        if (questions != null) {
+            for (Question question : questions) {
+                optionPool.internAll(question.getOptions());
+            }
+        }
+        return questions;
+    }
+
+    @Override
+    public byte[] encodeResult(QuizResult result) {
+        return JsonStreams.toBytes(gson, result, QuizResult.class);
+    }
+
+    @Override
+    public QuizResult decodeResult(byte[] payload) {
+        return JsonStreams.fromBytes(gson, payload, QuizResult.class);
+    }
+
+    // Streams one result at a time, so the file is never held in memory as a whole
+    @Override
+    public void writeSnapshot(OutputStream out, long generation, Map<String, List<QuizResult>> history) throws IOException {
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        writer.beginObject();
+        writer.name("generation").value(generation);
+        writer.name("history").beginObject();
+        for (Map.Entry<String, List<QuizResult>> entry : history.entrySet()) {
+            writer.name(entry.getKey()).beginArray();
+            for (QuizResult result : entry.getValue()) {
+                gson.toJson(result, QuizResult.class, writer);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+        writer.endObject();
+        writer.flush();
+    }
+
+    @Override
+    public long readSnapshot(InputStream in, Map<String, List<QuizResult>> history) throws IOException {
+        JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        long generation = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("generation".equals(name)) {
+                generation = reader.nextLong();
+            } else if ("history".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                readHistory(reader, history);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return generation;
+    }
+
+    private void readHistory(JsonReader reader, Map<String, List<QuizResult>> history) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String quizId = reader.nextName();
+            List<QuizResult> list = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                QuizResult result = gson.fromJson(reader, QuizResult.class);
+                if (result != null) {
+                    list.add(result);
+                }
+            }
+            reader.endArray();
+            history.put(quizId, list);
+        }
+        reader.endObject();
+    }
+}
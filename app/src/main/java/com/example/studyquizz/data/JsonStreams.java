@@ -0,0 +1,40 @@
+package com.example.studyquizz.data;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Gson encoding straight to and from UTF-8 bytes, without the intermediate
+ * String that toJson/fromJson would build for every record.
+ */
+final class JsonStreams {
+    private JsonStreams() {
+    }
+
+    static byte[] toBytes(Gson gson, Object value, Type type) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            gson.toJson(value, type, writer);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Throws a RuntimeException for malformed JSON, like {@link Gson#fromJson(String, Type)}. */
+    static <T> T fromBytes(Gson gson, byte[] payload, Type type) {
+        JsonReader reader = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(payload), StandardCharsets.UTF_8));
+        return gson.fromJson(reader, type);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.studyquizz.data;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Shares one String instance per distinct option text, so the thousands of
+ * "Đúng"/"Sai" or "Tất cả đều đúng" options read from disk are held once.
+ * Entries are weak: texts no loaded question uses any more can be collected.
+ */
+class OptionPool {
+    private final Map<String, WeakReference<String>> pool = new WeakHashMap<>();
+    private long requests;
+    private long hits;
+
+    synchronized String intern(String text) {
+        if (text == null) return null;
+        requests++;
+        WeakReference<String> ref = pool.get(text);
+        String shared = ref != null ? ref.get() : null;
+        if (shared != null) {
+            hits++;
+            return shared;
+        }
+        pool.put(text, new WeakReference<>(text));
+        return text;
+    }
+
+    /** Replaces every element of {@code options} with its pooled instance. */
+    void internAll(List<String> options) {
+        if (options == null) return;
+        for (int i = 0; i < options.size(); i++) {
+            options.set(i, intern(options.get(i)));
+        }
+    }
+
+    /** Option texts read per String actually kept; 1.0 means nothing was shared. */
+    synchronized double dedupRatio() {
+        long kept = requests - hits;
+        return kept == 0 ? 1.0 : (double) requests / kept;
+    }
+
+    synchronized String describe() {
+        return String.format(Locale.ROOT, "%d option texts, %d shared (%.1fx), %d distinct live",
+                requests, hits, dedupRatio(), pool.size());
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.studyquizz.data;
+
+import android.util.AtomicFile;
+
+import com.example.studyquizz.model.Question;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Questions of a large quiz, read from a memory-mapped file instead of the heap.
+ * A question is decoded the first time it is asked for with {@link #get(int)} and
+ * kept from then on, so edits made to it stick; iterating decodes without keeping,
+ * which lets indexing and saving walk a bank without filling the heap.
+ *
+ * The list can be edited like any other. Replacing a question only keeps the new
+ * one; adding or removing copies the whole bank to the heap first. Screens that
+ * edit questions in place should work on {@link com.example.studyquizz.model.Quiz#detachQuestions()} instead,
+ * since copies such as {@code new ArrayList<>(bank)} go through the iterator.
+ *
+ * File layout: [magic][version][count][offsets, count + 1 ints][fingerprints, count
+ * longs][question records]. Version 1 files have no fingerprints.
+ */
+class QuestionBank extends AbstractList<Question> implements RandomAccess {
+    private static final int MAGIC = 0x51424E4B; // "QBNK"
+    // 2: fingerprints after the offsets, so the duplicate index does not decode questions
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+
+    private final BinaryRecordCodec codec;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int fingerprintStart; // -1 when the file has no fingerprints
+    private final int dataStart;
+    private final Question[] decoded;
+    // Heap copy once the list has been structurally changed
+    private List<Question> edited;
+
+    private QuestionBank(BinaryRecordCodec codec, MappedByteBuffer buffer, int count, int version) {
+        this.codec = codec;
+        this.buffer = buffer;
+        this.count = count;
+        int offsetsEnd = HEADER_SIZE + (count + 1) * 4;
+        fingerprintStart = version >= 2 ? offsetsEnd : -1;
+        dataStart = version >= 2 ? offsetsEnd + count * 8 : offsetsEnd;
+        decoded = new Question[count];
+    }
+
+    private QuestionBank(QuestionBank source) {
+        codec = source.codec;
+        buffer = source.buffer;
+        count = source.count;
+        fingerprintStart = source.fingerprintStart;
+        dataStart = source.dataStart;
+        decoded = new Question[count];
+        for (int i = 0; i < count; i++) {
+            Question question = source.decoded[i];
+            decoded[i] = question != null ? new Question(question) : null;
+        }
+        if (source.edited != null) {
+            edited = new ArrayList<>(source.edited.size());
+            for (Question question : source.edited) {
+                edited.add(new Question(question));
+            }
+        }
+    }
+
+    static void write(AtomicFile file, List<byte[]> records, long[] fingerprints) throws IOException {
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            write(stream, records, fingerprints);
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            if (stream != null) file.failWrite(stream);
+            throw e;
+        }
+    }
+
+    static void write(OutputStream stream, List<byte[]> records, long[] fingerprints) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(records.size());
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] record : records) {
+            offset += record.length;
+            out.writeInt(offset);
+        }
+        for (long fingerprint : fingerprints) {
+            out.writeLong(fingerprint);
+        }
+        for (byte[] record : records) {
+            out.write(record);
+        }
+        out.flush();
+    }
+
+    static QuestionBank open(File file, BinaryRecordCodec codec) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a question bank: " + file.getName());
+            }
+            int version = buffer.getInt(4);
+            if (version > VERSION) {
+                throw new IOException("Unsupported question bank version " + version);
+            }
+            int count = buffer.getInt(8);
+            long offsetsEnd = HEADER_SIZE + (count + 1L) * 4;
+            long dataStart = version >= 2 ? offsetsEnd + count * 8L : offsetsEnd;
+            if (count < 0 || dataStart > buffer.limit()
+                    || dataStart + buffer.getInt(HEADER_SIZE + count * 4) > buffer.limit()) {
+                throw new IOException("Truncated question bank: " + file.getName());
+            }
+            return new QuestionBank(codec, buffer, count, version);
+        }
+    }
+
+    @Override
+    public Question get(int index) {
+        if (edited != null) return edited.get(index);
+        checkIndex(index);
+        Question question = decoded[index];
+        if (question == null) {
+            question = decode(index);
+            decoded[index] = question;
+        }
+        return question;
+    }
+
+    @Override
+    public int size() {
+        return edited != null ? edited.size() : count;
+    }
+
+    @Override
+    public Iterator<Question> iterator() {
+        if (edited != null) return edited.iterator();
+        return new Iterator<Question>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Question next() {
+                if (next >= count) throw new NoSuchElementException();
+                int index = next++;
+                Question question = decoded[index];
+                return question != null ? question : decode(index);
+            }
+        };
+    }
+
+    @Override
+    public Question set(int index, Question question) {
+        if (edited != null) return edited.set(index, question);
+        Question previous = get(index);
+        decoded[index] = question;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Question question) {
+        materialize().add(index, question);
+        modCount++;
+    }
+
+    @Override
+    public Question remove(int index) {
+        Question removed = materialize().remove(index);
+        modCount++;
+        return removed;
+    }
+
+    // AbstractCollection removes through the iterator, which has no remove()
+    @Override
+    public boolean remove(Object question) {
+        int index = indexOf(question);
+        if (index < 0) return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        edited = new ArrayList<>();
+        modCount++;
+    }
+
+    /**
+     * Copy that another thread can read while this one keeps being edited. It shares
+     * the read-only mapping and copies only the questions decoded or edited so far,
+     * so taking it decodes nothing.
+     */
+    QuestionBank snapshot() {
+        return new QuestionBank(this);
+    }
+
+    /**
+     * Fingerprint of every question. Questions never asked for are answered from the
+     * file header without decoding; decoded ones may have been edited in place, so
+     * their fingerprint is recomputed when {@code recompute} is set.
+     */
+    long[] fingerprints(boolean recompute) {
+        long[] fingerprints = new long[size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            Question question = edited != null ? edited.get(i) : decoded[i];
+            if (question != null) {
+                fingerprints[i] = QuestionFingerprint.update(question, recompute);
+                continue;
+            }
+            long stored = fingerprintStart >= 0 ? buffer.getLong(fingerprintStart + i * 8) : 0;
+            // Version 1 files: decoded without keeping, like iterating
+            fingerprints[i] = stored != 0 ? stored : QuestionFingerprint.update(decode(i), false);
+        }
+        return fingerprints;
+    }
+
+    private List<Question> materialize() {
+        if (edited == null) {
+            List<Question> copy = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                copy.add(get(i));
+            }
+            edited = copy;
+        }
+        return edited;
+    }
+
+    private Question decode(int index) {
+        int start = buffer.getInt(HEADER_SIZE + index * 4);
+        int end = buffer.getInt(HEADER_SIZE + (index + 1) * 4);
+        byte[] record = new byte[end - start];
+        // Absolute reads through a duplicate, so concurrent decodes do not share a position
+        ByteBuffer view = buffer.duplicate();
+        view.position(dataStart + start);
+        view.get(record);
+        return codec.decodeQuestion(record);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + count);
+        }
+    }
+}
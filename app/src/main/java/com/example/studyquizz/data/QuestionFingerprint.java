@@ -0,0 +1,86 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.util.TextFolding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 64-bit hash of what makes two questions the same to a reader: the content and the
+ * set of options, folded for case and diacritics, with whitespace collapsed, a leading
+ * "Câu 12:" style number dropped and the options sorted. Never 0, which marks a
+ * question whose fingerprint was not computed yet.
+ */
+final class QuestionFingerprint {
+    // Số thứ tự đầu câu ("cau 12:", "question 3.", "12)") khác nhau giữa các file, nên bỏ đi
+    private static final Pattern NUMBERING =
+            Pattern.compile("^(?:(?:cau|question)\\s*\\d+\\s*[:.)\\-]?|\\d+\\s*[:.)](?=\\s|$))\\s*");
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private QuestionFingerprint() {
+    }
+
+    static long of(Question question) {
+        String content = NUMBERING.matcher(normalize(question.getContent())).replaceFirst("");
+        List<String> options = new ArrayList<>();
+        if (question.getOptions() != null) {
+            for (String option : question.getOptions()) {
+                options.add(normalize(option));
+            }
+        }
+        Collections.sort(options);
+        long hash = hash(FNV_OFFSET, content);
+        for (String option : options) {
+            // Dấu phân cách để "ab"+"c" khác "a"+"bc"
+            hash = hash(mix(hash, '\u0001'), option);
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    /**
+     * The fingerprint kept on {@code question}, computed and stored first when it is
+     * missing or when {@code recompute} is set because the question may have changed.
+     */
+    static long update(Question question, boolean recompute) {
+        long fingerprint = question.getFingerprint();
+        if (recompute || fingerprint == 0) {
+            fingerprint = of(question);
+            question.setFingerprint(fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static String normalize(String text) {
+        String folded = TextFolding.fold(text);
+        StringBuilder collapsed = new StringBuilder(folded.length());
+        boolean space = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = collapsed.length() > 0;
+            } else {
+                if (space) collapsed.append(' ');
+                collapsed.append(c);
+                space = false;
+            }
+        }
+        return collapsed.toString();
+    }
+
+    // FNV-1a over UTF-16 units
+    private static long hash(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = mix(hash, text.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, char c) {
+        hash ^= c;
+        return hash * FNV_PRIME;
+    }
+}
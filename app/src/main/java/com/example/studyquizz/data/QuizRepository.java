@@ -1,7 +1,11 @@
 package com.example.studyquizz.data;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
 
 import com.example.studyquizz.model.Question;
 import com.example.studyquizz.model.QuestionType;
@@ -10,88 +14,403 @@ import com.example.studyquizz.model.QuizResult;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
+import java.io.File;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * In-memory quiz data backed by {@link QuizStore}.
+ * The in-memory state belongs to the main thread and every getter is memory-only.
+ * Disk access runs on one dedicated I/O thread. Mutations are coalesced for a short
+ * window (or between {@link #beginBatch()} and {@link #commitBatch()}) and written
+ * there as one batch, except quiz results, which are appended as soon as they are
+ * saved. Loading the repository or a quiz's questions is offered as async calls that
+ * deliver results back on the main thread.
+ */
 public class QuizRepository {
     private static final String PREF_NAME = "study_quiz_store";
     private static final String KEY_QUIZZES = "quizzes";
     private static final String KEY_HISTORY = "history";
     private static final String KEY_CUSTOM_CATEGORIES = "custom_categories";
     private static final String KEY_QUIZ_ID_MAPPING = "quiz_id_mapping";
+    private static final String STORE_DIR = "quiz_store";
+    // Format of new records; records already on disk are read in whichever format they have
+    private static final StoreFormat STORE_FORMAT = StoreFormat.BINARY;
+    // Mutations arriving within this window are written together
+    private static final long FLUSH_DELAY_MS = 500;
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    // Single writer: all store reads and writes after startup happen here, in submission order
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "quiz-repository-io"));
     private static QuizRepository instance;
     private final SharedPreferences prefs;
     private final Gson gson = new Gson();
-    private List<Quiz> quizzes;
+    private final QuizStore store;
+    // Keyed by quiz id; insertion order is the order shown in quiz lists
+    private final Map<String, Quiz> quizzes = new LinkedHashMap<>();
+    // Effective category -> ids of its quizzes
+    private final Map<String, Set<String>> categoryIndex = new HashMap<>();
+    // Category each quiz is indexed under; screens edit Quiz objects in place before updateQuiz()
+    private final Map<String, String> indexedCategories = new HashMap<>();
+    // Built on the first search, since it needs the questions of every quiz
+    private SearchIndex searchIndex = new SearchIndex();
+    private boolean searchIndexBuilt;
+    private boolean searchIndexBuilding;
+    // Quizzes changed while the index was being built, re-indexed once it is installed
+    private final Set<String> searchIndexDirty = new HashSet<>();
+    private final List<Runnable> pendingSearches = new ArrayList<>();
+    // Question fingerprint -> quizzes, built on the first duplicate check like the search index
+    private FingerprintIndex fingerprintIndex = new FingerprintIndex();
+    private boolean fingerprintIndexBuilt;
+    private boolean fingerprintIndexBuilding;
+    private final Set<String> fingerprintIndexDirty = new HashSet<>();
+    private final List<Runnable> pendingDuplicateChecks = new ArrayList<>();
     private Map<String, List<QuizResult>> history;
+    private final Map<String, QuizStats> stats = new HashMap<>();
     private List<String> customCategories;
     private Map<String, QuizIdInfo> quizIdMapping; // Maps "XXX XXX XXXX" -> QuizIdInfo
+    // Mutations not yet handed to the I/O thread; a quiz saved twice is written once
+    private final Map<String, Quiz> pendingQuizzes = new LinkedHashMap<>(); // null = deleted
+    private final Map<String, QuizIdInfo> pendingQuizIds = new LinkedHashMap<>();
+    private final List<String> pendingCategories = new ArrayList<>();
+    private final Runnable flushTask = this::flush;
+    private boolean flushScheduled;
+    private int batchDepth;
 
     private QuizRepository(Context context) {
+        this(context, new QuizStore(new File(context.getFilesDir(), STORE_DIR), new Gson(), STORE_FORMAT));
+    }
+
+    // Tests pass a store of their own, so they never touch the app's data
+    QuizRepository(Context context, QuizStore store) {
         prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.store = store;
         loadData();
+        context.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                // UI_HIDDEN: the app went to the background and may be killed without notice
+                if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                flush();
+            }
+        });
+    }
+
+    public interface Callback<T> {
+        void onResult(T result);
     }
 
-    public static QuizRepository getInstance(Context context) {
+    // Only called on the I/O thread, since the first call reads the whole store
+    private static synchronized QuizRepository getInstance(Context context) {
         if (instance == null) {
             instance = new QuizRepository(context.getApplicationContext());
         }
         return instance;
     }
 
+    /**
+     * Loads the repository on the I/O thread and delivers it on the main thread,
+     * immediately if it is already loaded.
+     */
+    public static void getInstanceAsync(Context context, Callback<QuizRepository> callback) {
+        QuizRepository loaded;
+        synchronized (QuizRepository.class) {
+            loaded = instance;
+        }
+        if (loaded != null) {
+            callback.onResult(loaded);
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        IO.execute(() -> {
+            QuizRepository repository = getInstance(appContext);
+            MAIN.post(() -> callback.onResult(repository));
+        });
+    }
+
+    public boolean containsQuiz(String id) {
+        return id != null && quizzes.containsKey(id);
+    }
+
+    /**
+     * Returns all quizzes. Their questions may not be loaded yet; use
+     * {@link Quiz#getQuestionCount()} for lists and {@link #loadQuizAsync} to open one.
+     */
     public List<Quiz> getQuizzes() {
-        return quizzes;
+        return new ArrayList<>(quizzes.values());
     }
 
-    public Quiz getQuizById(String id) {
-        for (Quiz quiz : quizzes) {
-            if (quiz.getId().equals(id)) {
-                return quiz;
+    /**
+     * Returns a quiz with its questions on the main thread; questions not read yet are
+     * loaded on the I/O thread first. Delivers null when the quiz does not exist.
+     */
+    public void loadQuizAsync(String id, Callback<Quiz> callback) {
+        Quiz quiz = id != null ? quizzes.get(id) : null;
+        if (quiz == null || quiz.isQuestionsLoaded()) {
+            callback.onResult(quiz);
+            return;
+        }
+        IO.execute(() -> {
+            List<Question> questions = store.loadQuestions(id);
+            MAIN.post(() -> {
+                // Another load of the same quiz may have finished first
+                if (!quiz.isQuestionsLoaded()) {
+                    applyQuestions(quiz, questions);
+                }
+                callback.onResult(quiz);
+            });
+        });
+    }
+
+    /** Quizzes whose effective category is {@code category}, in insertion order. */
+    public List<Quiz> getQuizzesByCategory(String category) {
+        List<Quiz> result = new ArrayList<>();
+        Set<String> ids = categoryIndex.get(category);
+        if (ids == null) return result;
+        for (String id : ids) {
+            result.add(quizzes.get(id));
+        }
+        return result;
+    }
+
+    public int getQuizCountForCategory(String category) {
+        Set<String> ids = categoryIndex.get(category);
+        return ids != null ? ids.size() : 0;
+    }
+
+    // Answers from the installed index; searchQuizzesAsync builds it first
+    private List<Quiz> searchQuizzes(String query) {
+        List<Quiz> result = new ArrayList<>();
+        for (String id : searchIndex.search(query)) {
+            Quiz quiz = quizzes.get(id);
+            if (quiz != null) {
+                result.add(quiz);
             }
         }
-        return null;
+        return result;
+    }
+
+    /**
+     * Delivers the quizzes whose title, description, questions or options contain every
+     * word of {@code query} as a prefix, ignoring case and Vietnamese diacritics. The
+     * index is built on the I/O thread the first time.
+     */
+    public void searchQuizzesAsync(String query, Callback<List<Quiz>> callback) {
+        if (searchIndexBuilt) {
+            callback.onResult(searchQuizzes(query));
+            return;
+        }
+        pendingSearches.add(() -> callback.onResult(searchQuizzes(query)));
+        if (searchIndexBuilding) return;
+        searchIndexBuilding = true;
+        List<SearchSource> sources = searchSources();
+        IO.execute(() -> {
+            SearchIndex built = buildSearchIndex(sources);
+            MAIN.post(() -> installSearchIndex(built));
+        });
+    }
+
+    /**
+     * Questions of {@code questions} that already exist in a quiz other than
+     * {@code exceptQuizId} (may be null), or repeat an earlier question of the list.
+     * Questions match when their content and set of options are equal ignoring case,
+     * diacritics, whitespace and a leading question number.
+     * Only valid once {@link #loadDuplicateIndexAsync} has reported the index ready.
+     */
+    public List<Question> findDuplicateQuestions(List<Question> questions, String exceptQuizId) {
+        if (!fingerprintIndexBuilt) {
+            throw new IllegalStateException("Duplicate index not loaded; use loadDuplicateIndexAsync first");
+        }
+        List<Question> duplicates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Question question : questions) {
+            long fingerprint = QuestionFingerprint.of(question);
+            if (!seen.add(fingerprint) || fingerprintIndex.contains(fingerprint, exceptQuizId)) {
+                duplicates.add(question);
+            }
+        }
+        return duplicates;
+    }
+
+    /** Same as {@link #findDuplicateQuestions}, but builds the index on the I/O thread first if needed. */
+    public void findDuplicateQuestionsAsync(List<Question> questions, String exceptQuizId,
+                                            Callback<List<Question>> callback) {
+        loadDuplicateIndexAsync(() -> callback.onResult(findDuplicateQuestions(questions, exceptQuizId)));
+    }
+
+    /**
+     * Runs {@code onReady} on the main thread once {@link #findDuplicateQuestions} can
+     * answer without touching the disk.
+     */
+    public void loadDuplicateIndexAsync(Runnable onReady) {
+        if (fingerprintIndexBuilt) {
+            onReady.run();
+            return;
+        }
+        pendingDuplicateChecks.add(onReady);
+        if (fingerprintIndexBuilding) return;
+        fingerprintIndexBuilding = true;
+        List<FingerprintSource> sources = fingerprintSources();
+        IO.execute(() -> {
+            FingerprintIndex built = buildFingerprintIndex(sources);
+            MAIN.post(() -> installFingerprintIndex(built));
+        });
+    }
+
+    /**
+     * Starts grouping mutations into a single write, until the matching
+     * {@link #commitBatch()}. Batches may be nested.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    public void commitBatch() {
+        if (batchDepth > 0 && --batchDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Hands every pending mutation to the I/O thread now instead of waiting for the
+     * coalescing window. Called automatically when the app goes to the background.
+     */
+    public void flush() {
+        MAIN.removeCallbacks(flushTask);
+        flushScheduled = false;
+        WriteBatch batch = new WriteBatch();
+        // Screens keep editing the same Quiz objects after saving, so the I/O thread gets
+        // copies; encoding them, which decodes every question of a bank, happens there
+        Map<String, Quiz> snapshots = new LinkedHashMap<>();
+        for (Map.Entry<String, Quiz> entry : pendingQuizzes.entrySet()) {
+            Quiz quiz = entry.getValue();
+            snapshots.put(entry.getKey(), quiz != null ? snapshotOf(quiz) : null);
+        }
+        batch.quizIds.putAll(pendingQuizIds);
+        batch.categories.addAll(pendingCategories);
+        pendingQuizzes.clear();
+        pendingQuizIds.clear();
+        pendingCategories.clear();
+        if (!batch.isEmpty() || !snapshots.isEmpty()) {
+            IO.execute(() -> {
+                for (Map.Entry<String, Quiz> entry : snapshots.entrySet()) {
+                    Quiz quiz = entry.getValue();
+                    batch.quizzes.put(entry.getKey(), quiz != null ? store.encodeQuiz(quiz) : null);
+                }
+                store.apply(batch);
+            });
+        }
+    }
+
+    // Copy of everything encodeQuiz reads; taking it allocates but neither decodes nor serializes
+    private static Quiz snapshotOf(Quiz quiz) {
+        Quiz copy = new Quiz(quiz.getTitle(), quiz.getDescription(), quiz.getCategory(), quiz.getCustomCategory());
+        copy.setId(quiz.getId());
+        copy.setDurationMinutes(quiz.getDurationMinutes());
+        List<Question> questions = quiz.getQuestions();
+        if (questions instanceof QuestionBank) {
+            copy.attachQuestions(((QuestionBank) questions).snapshot());
+        } else {
+            List<Question> copies = new ArrayList<>(questions.size());
+            for (Question question : questions) {
+                copies.add(new Question(question));
+            }
+            copy.attachQuestions(copies);
+        }
+        return copy;
     }
 
     public void addQuiz(Quiz quiz) {
-        quizzes.add(quiz);
+        quizzes.put(quiz.getId(), quiz);
+        indexCategory(quiz);
+        indexForSearch(quiz);
         // Add custom category if exists
         if (quiz.getCustomCategory() != null && !quiz.getCustomCategory().isEmpty()) {
             addCustomCategory(quiz.getCustomCategory());
         }
-        persist();
+        writeQuiz(quiz);
     }
 
+    /**
+     * Saves changes to a quiz opened with {@link #loadQuizAsync}; a quiz deleted in the
+     * meantime stays deleted.
+     */
     public void updateQuiz(Quiz quiz) {
-        for (int i = 0; i < quizzes.size(); i++) {
-            if (quizzes.get(i).getId().equals(quiz.getId())) {
-                quizzes.set(i, quiz);
-                break;
-            }
+        if (!quizzes.containsKey(quiz.getId())) return;
+        if (!quiz.isQuestionsLoaded()) {
+            // Saving needs the questions, and reading them here would block the main thread
+            throw new IllegalStateException("Quiz " + quiz.getId() + " not loaded; use loadQuizAsync first");
         }
+        // Replacing an existing key keeps its position in the list
+        quizzes.put(quiz.getId(), quiz);
+        indexCategory(quiz);
+        indexForSearch(quiz);
         // Add custom category if exists
         if (quiz.getCustomCategory() != null && !quiz.getCustomCategory().isEmpty()) {
             addCustomCategory(quiz.getCustomCategory());
         }
-        persist();
+        writeQuiz(quiz);
     }
 
     public void deleteQuiz(String quizId) {
-        quizzes.removeIf(quiz -> quiz.getId().equals(quizId));
-        persist();
+        quizzes.remove(quizId);
+        unindexCategory(quizId);
+        unindexForSearch(quizId);
+        unindexFingerprints(quizId);
+        pendingQuizzes.put(quizId, null);
+        scheduleFlush();
     }
 
     public void saveResult(QuizResult result) {
         List<QuizResult> list = history.getOrDefault(result.getQuizId(), new ArrayList<>());
         list.add(result);
         history.put(result.getQuizId(), list);
-        persist();
+        recordStats(result);
+        // Not coalesced: a submitted exam is one fsync'd append of its own, queued right
+        // away so it is not lost if the process dies during the flush window
+        WriteBatch batch = new WriteBatch();
+        batch.results.add(result);
+        IO.execute(() -> store.apply(batch));
     }
 
     public List<QuizResult> getHistoryForQuiz(String quizId) {
-        return history.getOrDefault(quizId, new ArrayList<>());
+        List<QuizResult> results = history.get(quizId);
+        return results != null ? results : Collections.emptyList();
+    }
+
+    /** Play count, best score, last played and average duration of one quiz. */
+    public QuizStats getQuizStats(String quizId) {
+        QuizStats quizStats = stats.get(quizId);
+        return quizStats != null ? quizStats : QuizStats.EMPTY;
+    }
+
+    /**
+     * How many option texts were read per String kept in memory, since startup.
+     * Identical options across questions and quizzes share one instance.
+     */
+    public double getOptionDedupRatio() {
+        return store.getOptionPool().dedupRatio();
     }
 
     public Map<String, List<QuizResult>> getAllHistory() {
@@ -99,24 +418,51 @@ public class QuizRepository {
     }
 
     private void loadData() {
-        Type quizType = new TypeToken<List<Quiz>>() {}.getType();
-        quizzes = gson.fromJson(prefs.getString(KEY_QUIZZES, null), quizType);
-        boolean addedDefaults = false;
-        if (quizzes == null) {
-            quizzes = defaultQuizzes();
-            addedDefaults = true;
+        quizzes.clear();
+        categoryIndex.clear();
+        indexedCategories.clear();
+        searchIndex.clear();
+        searchIndexBuilt = false;
+        fingerprintIndex = new FingerprintIndex();
+        fingerprintIndexBuilt = false;
+        if (store.isInitialized()) {
+            for (Quiz quiz : store.loadQuizzes()) {
+                quizzes.put(quiz.getId(), quiz);
+            }
+            history = store.loadHistory();
+            customCategories = store.loadCustomCategories();
+            quizIdMapping = store.loadQuizIdMapping();
         } else {
-            for (Quiz quiz : quizzes) {
-                if (quiz.getQuestions() == null) {
-                    quiz.setQuestions(new ArrayList<>());
-                }
-                for (Question q : quiz.getQuestions()) {
-                    if (q.getOptions() == null) {
-                        q.setOptions(new ArrayList<>());
-                    }
-                }
+            migrateFromPreferences();
+        }
+
+        // Ensure new default quizzes appear for existing users
+        mergeDefaultQuizzesIfMissing();
+        for (Quiz quiz : quizzes.values()) {
+            indexCategory(quiz);
+        }
+        stats.clear();
+        for (List<QuizResult> results : history.values()) {
+            for (QuizResult result : results) {
+                recordStats(result);
             }
         }
+    }
+
+    /**
+     * One-time move of the old SharedPreferences blobs (or the default quizzes on a
+     * fresh install) into {@link QuizStore}. Afterwards every change is written per record.
+     */
+    private void migrateFromPreferences() {
+        Type quizType = new TypeToken<List<Quiz>>() {}.getType();
+        List<Quiz> legacyQuizzes = gson.fromJson(prefs.getString(KEY_QUIZZES, null), quizType);
+        if (legacyQuizzes == null) {
+            legacyQuizzes = defaultQuizzes();
+        }
+        for (Quiz quiz : legacyQuizzes) {
+            normalizeQuestions(quiz);
+            quizzes.put(quiz.getId(), quiz);
+        }
         Type historyType = new TypeToken<Map<String, List<QuizResult>>>() {}.getType();
         history = gson.fromJson(prefs.getString(KEY_HISTORY, null), historyType);
         if (history == null) {
@@ -137,38 +483,294 @@ public class QuizRepository {
             quizIdMapping = new HashMap<>();
         }
 
-        // Ensure new default quizzes appear for existing users
-        if (!addedDefaults) {
-            addedDefaults = mergeDefaultQuizzesIfMissing();
+        store.writeAll(legacyQuizzes, history, customCategories, quizIdMapping);
+        store.markInitialized();
+        prefs.edit()
+                .remove(KEY_QUIZZES)
+                .remove(KEY_HISTORY)
+                .remove(KEY_CUSTOM_CATEGORIES)
+                .remove(KEY_QUIZ_ID_MAPPING)
+                .apply();
+    }
+
+    /**
+     * Quizzes are loaded as headers only; {@link #loadQuizAsync} reads the questions
+     * the first time a single quiz is opened, so startup does not depend on question count.
+     */
+    private void applyQuestions(Quiz quiz, List<Question> questions) {
+        if (questions instanceof QuestionBank) {
+            // Kept as the mapped view; decoded questions already have their options
+            quiz.attachQuestions(questions);
+        } else {
+            quiz.setQuestions(questions);
+            normalizeQuestions(quiz);
         }
-        if (addedDefaults) {
-            persist();
+    }
+
+    private void writeQuiz(Quiz quiz) {
+        store.internOptions(quiz.getQuestions());
+        // Recomputed on every save, since screens edit questions in place
+        long[] fingerprints = fingerprintsOf(quiz.getQuestions(), true);
+        if (quizzes.containsKey(quiz.getId())) {
+            indexFingerprints(quiz.getId(), fingerprints);
         }
+        pendingQuizzes.put(quiz.getId(), quiz);
+        scheduleFlush();
     }
 
-    private void persist() {
-        prefs.edit()
-                .putString(KEY_QUIZZES, gson.toJson(quizzes))
-                .putString(KEY_HISTORY, gson.toJson(history))
-                .putString(KEY_CUSTOM_CATEGORIES, gson.toJson(customCategories))
-                .putString(KEY_QUIZ_ID_MAPPING, gson.toJson(quizIdMapping))
-                .apply();
+    private void scheduleFlush() {
+        if (batchDepth > 0 || flushScheduled) return;
+        flushScheduled = true;
+        MAIN.postDelayed(flushTask, FLUSH_DELAY_MS);
     }
-    
+
+    /** Blocks until everything handed to the I/O thread so far has run. For tests, off the main thread. */
+    static void awaitIo() throws InterruptedException, ExecutionException {
+        IO.submit(() -> { }).get();
+    }
+
+    private void recordStats(QuizResult result) {
+        QuizStats quizStats = stats.get(result.getQuizId());
+        if (quizStats == null) {
+            quizStats = new QuizStats();
+            stats.put(result.getQuizId(), quizStats);
+        }
+        quizStats.record(result);
+    }
+
+    private void indexCategory(Quiz quiz) {
+        String category = quiz.getEffectiveCategory();
+        String previous = indexedCategories.get(quiz.getId());
+        if (previous != null && previous.equals(category)) return;
+        unindexCategory(quiz.getId());
+        if (category == null) return;
+        Set<String> ids = categoryIndex.get(category);
+        if (ids == null) {
+            ids = new LinkedHashSet<>();
+            categoryIndex.put(category, ids);
+        }
+        ids.add(quiz.getId());
+        indexedCategories.put(quiz.getId(), category);
+    }
+
+    private void unindexCategory(String quizId) {
+        String category = indexedCategories.remove(quizId);
+        if (category == null) return;
+        Set<String> ids = categoryIndex.get(category);
+        if (ids != null) {
+            ids.remove(quizId);
+            if (ids.isEmpty()) {
+                categoryIndex.remove(category);
+            }
+        }
+    }
+
+    // Taken on the main thread; questions of unopened quizzes are read when the index is built
+    private List<SearchSource> searchSources() {
+        List<SearchSource> sources = new ArrayList<>(quizzes.size());
+        for (Quiz quiz : quizzes.values()) {
+            boolean loaded = quiz.isQuestionsLoaded();
+            sources.add(new SearchSource(quiz.getId(),
+                    searchableTexts(quiz, loaded ? quiz.getQuestions() : null), !loaded));
+        }
+        return sources;
+    }
+
+    // Runs on the I/O thread
+    private SearchIndex buildSearchIndex(List<SearchSource> sources) {
+        SearchIndex built = new SearchIndex();
+        for (SearchSource source : sources) {
+            if (source.needsQuestions) {
+                // Read without keeping the questions in memory
+                addQuestionTexts(source.texts, store.loadQuestions(source.quizId));
+            }
+            built.put(source.quizId, source.texts);
+        }
+        return built;
+    }
+
+    private void installSearchIndex(SearchIndex built) {
+        if (!searchIndexBuilt) {
+            for (String id : searchIndexDirty) {
+                Quiz quiz = quizzes.get(id);
+                if (quiz == null) {
+                    built.remove(id);
+                } else {
+                    built.put(id, searchableTexts(quiz, quiz.getQuestions()));
+                }
+            }
+            searchIndex = built;
+            searchIndexBuilt = true;
+        }
+        searchIndexDirty.clear();
+        searchIndexBuilding = false;
+        List<Runnable> callbacks = new ArrayList<>(pendingSearches);
+        pendingSearches.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private void indexForSearch(Quiz quiz) {
+        if (searchIndexBuilt) {
+            searchIndex.put(quiz.getId(), searchableTexts(quiz, quiz.getQuestions()));
+        } else if (searchIndexBuilding) {
+            searchIndexDirty.add(quiz.getId());
+        }
+    }
+
+    private void unindexForSearch(String quizId) {
+        if (searchIndexBuilt) {
+            searchIndex.remove(quizId);
+        } else if (searchIndexBuilding) {
+            searchIndexDirty.add(quizId);
+        }
+    }
+
+    // Taken on the main thread, like searchSources()
+    private List<FingerprintSource> fingerprintSources() {
+        List<FingerprintSource> sources = new ArrayList<>(quizzes.size());
+        for (Quiz quiz : quizzes.values()) {
+            sources.add(new FingerprintSource(quiz.getId(),
+                    quiz.isQuestionsLoaded() ? fingerprintsOf(quiz.getQuestions(), false) : null));
+        }
+        return sources;
+    }
+
+    // Runs on the I/O thread
+    private FingerprintIndex buildFingerprintIndex(List<FingerprintSource> sources) {
+        FingerprintIndex built = new FingerprintIndex();
+        for (FingerprintSource source : sources) {
+            long[] fingerprints = source.fingerprints;
+            if (fingerprints == null) {
+                // Stored fingerprints are used as is; only records older than them are hashed
+                fingerprints = fingerprintsOf(store.loadQuestions(source.quizId), false);
+            }
+            built.put(source.quizId, fingerprints);
+        }
+        return built;
+    }
+
+    private void installFingerprintIndex(FingerprintIndex built) {
+        if (!fingerprintIndexBuilt) {
+            for (String id : fingerprintIndexDirty) {
+                Quiz quiz = quizzes.get(id);
+                if (quiz == null) {
+                    built.remove(id);
+                } else {
+                    built.put(id, fingerprintsOf(quiz.getQuestions(), false));
+                }
+            }
+            fingerprintIndex = built;
+            fingerprintIndexBuilt = true;
+        }
+        fingerprintIndexDirty.clear();
+        fingerprintIndexBuilding = false;
+        List<Runnable> callbacks = new ArrayList<>(pendingDuplicateChecks);
+        pendingDuplicateChecks.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private void indexFingerprints(String quizId, long[] fingerprints) {
+        if (fingerprintIndexBuilt) {
+            fingerprintIndex.put(quizId, fingerprints);
+        } else if (fingerprintIndexBuilding) {
+            fingerprintIndexDirty.add(quizId);
+        }
+    }
+
+    private void unindexFingerprints(String quizId) {
+        if (fingerprintIndexBuilt) {
+            fingerprintIndex.remove(quizId);
+        } else if (fingerprintIndexBuilding) {
+            fingerprintIndexDirty.add(quizId);
+        }
+    }
+
+    // Fills in missing fingerprints, or all of them when {@code recompute} is set
+    private static long[] fingerprintsOf(List<Question> questions, boolean recompute) {
+        if (questions == null) return new long[0];
+        if (questions instanceof QuestionBank) {
+            // Read from the bank header, so large quizzes are not pulled onto the heap
+            return ((QuestionBank) questions).fingerprints(recompute);
+        }
+        long[] fingerprints = new long[questions.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = QuestionFingerprint.update(questions.get(i), recompute);
+        }
+        return fingerprints;
+    }
+
+    private List<String> searchableTexts(Quiz quiz, List<Question> questions) {
+        List<String> texts = new ArrayList<>();
+        texts.add(quiz.getTitle());
+        texts.add(quiz.getDescription());
+        addQuestionTexts(texts, questions);
+        return texts;
+    }
+
+    private static void addQuestionTexts(List<String> texts, List<Question> questions) {
+        if (questions == null) return;
+        for (Question question : questions) {
+            texts.add(question.getContent());
+            if (question.getOptions() != null) {
+                texts.addAll(question.getOptions());
+            }
+        }
+    }
+
+    private static class FingerprintSource {
+        final String quizId;
+        final long[] fingerprints; // null = read from the store
+
+        FingerprintSource(String quizId, long[] fingerprints) {
+            this.quizId = quizId;
+            this.fingerprints = fingerprints;
+        }
+    }
+
+    private static class SearchSource {
+        final String quizId;
+        final List<String> texts;
+        final boolean needsQuestions;
+
+        SearchSource(String quizId, List<String> texts, boolean needsQuestions) {
+            this.quizId = quizId;
+            this.texts = texts;
+            this.needsQuestions = needsQuestions;
+        }
+    }
+
+    private void normalizeQuestions(Quiz quiz) {
+        if (quiz.getQuestions() == null) {
+            quiz.setQuestions(new ArrayList<>());
+        }
+        for (Question q : quiz.getQuestions()) {
+            if (q.getOptions() == null) {
+                q.setOptions(new ArrayList<>());
+            }
+        }
+    }
+
     public void setQuizIdAndPassword(String quizId, String password, String quizUuid) {
-        quizIdMapping.put(quizId, new QuizIdInfo(quizUuid, password));
-        persist();
+        QuizIdInfo info = new QuizIdInfo(quizUuid, password);
+        quizIdMapping.put(quizId, info);
+        pendingQuizIds.put(quizId, info);
+        scheduleFlush();
     }
     
+    /** Returns the matching quiz header; open it with {@link #loadQuizAsync} to get its questions. */
     public Quiz findQuizByQuizIdAndPassword(String quizId, String password) {
         QuizIdInfo info = quizIdMapping.get(quizId);
         if (info != null && info.password.equals(password)) {
-            return getQuizById(info.quizUuid);
+            return quizzes.get(info.quizUuid);
         }
         return null;
     }
     
-    private static class QuizIdInfo {
+    static class QuizIdInfo {
         String quizUuid;
         String password;
         
@@ -181,6 +783,8 @@ public class QuizRepository {
     private void addCustomCategory(String categoryName) {
         if (!customCategories.contains(categoryName)) {
             customCategories.add(categoryName);
+            pendingCategories.add(categoryName);
+            scheduleFlush();
         }
     }
     
@@ -192,23 +796,20 @@ public class QuizRepository {
      * Add newly introduced default quizzes for users who already have data.
      * Matching by title to avoid duplicates if IDs changed.
      */
-    private boolean mergeDefaultQuizzesIfMissing() {
+    private void mergeDefaultQuizzesIfMissing() {
         List<Quiz> defaults = defaultQuizzes();
-        boolean changed = false;
-        for (Quiz def : defaults) {
-            boolean exists = false;
-            for (Quiz existing : quizzes) {
-                if (existing.getTitle() != null && existing.getTitle().equals(def.getTitle())) {
-                    exists = true;
-                    break;
-                }
+        Set<String> titles = new HashSet<>();
+        for (Quiz existing : quizzes.values()) {
+            if (existing.getTitle() != null) {
+                titles.add(existing.getTitle());
             }
-            if (!exists) {
-                quizzes.add(def);
-                changed = true;
+        }
+        for (Quiz def : defaults) {
+            if (!titles.contains(def.getTitle())) {
+                quizzes.put(def.getId(), def);
+                store.putQuiz(def);
             }
         }
-        return changed;
     }
 
     private List<Quiz> defaultQuizzes() {
@@ -0,0 +1,39 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.model.QuizResult;
+
+/**
+ * Aggregates over all attempts of one quiz, kept up to date by {@link QuizRepository}
+ * so list screens never have to walk the history.
+ */
+public class QuizStats {
+    static final QuizStats EMPTY = new QuizStats();
+
+    private int playCount;
+    private int bestScore;
+    private long lastPlayed;
+    private long totalDuration;
+
+    void record(QuizResult result) {
+        playCount++;
+        bestScore = Math.max(bestScore, result.getScore());
+        lastPlayed = Math.max(lastPlayed, result.getTimestamp());
+        totalDuration += result.getDuration();
+    }
+
+    public int getPlayCount() {
+        return playCount;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public long getLastPlayed() {
+        return lastPlayed;
+    }
+
+    public long getAverageDuration() {
+        return playCount == 0 ? 0 : totalDuration / playCount;
+    }
+}
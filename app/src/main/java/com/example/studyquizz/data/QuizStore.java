@@ -0,0 +1,372 @@
+package com.example.studyquizz.data;
+
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.Quiz;
+import com.example.studyquizz.model.QuizResult;
+import com.google.gson.Gson;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * File-backed storage behind {@link QuizRepository}.
+ * Each quiz lives in its own file, results go to the {@link HistoryLog} and quiz IDs
+ * and custom categories are append-only logs, so a mutation only writes the record it touches.
+ *
+ * A quiz file is [format][sequence][question count][header frame][questions frame], so
+ * list screens can be served from the headers while questions are read on demand.
+ * Large quizzes leave the questions frame empty and keep their questions in a
+ * {@link QuestionBank} file that is memory-mapped instead of decoded.
+ */
+class QuizStore {
+    private static final String TAG = "QuizStore";
+    private static final String DIR_QUIZZES = "quizzes";
+    private static final String FILE_QUIZ_IDS = "quiz_ids.log";
+    private static final String FILE_CATEGORIES = "categories.log";
+    private static final String FILE_MARKER = "initialized";
+    private static final String QUIZ_SUFFIX = ".rec";
+    private static final String BANK_SUFFIX = ".bank";
+    // Quizzes this large keep their questions in a memory-mapped QuestionBank
+    private static final int BANK_THRESHOLD = 1000;
+    private static final int QUIZ_FORMAT = 2;
+
+    private final File root;
+    private final File quizDir;
+    private final HistoryLog historyLog;
+    private final RecordLog quizIdLog;
+    private final RecordLog categoryLog;
+    private final Gson gson;
+    private final RecordCodec codec;
+    private final BinaryRecordCodec bankCodec;
+    // Shared by every decoder, so identical option texts are held once across quizzes
+    private final OptionPool optionPool = new OptionPool();
+    // Sequence number per quiz id, used to keep the original insertion order on load
+    private final Map<String, Long> sequences = new HashMap<>();
+    private long nextSequence;
+
+    QuizStore(File root, Gson gson, StoreFormat format) {
+        this.root = root;
+        this.gson = gson;
+        codec = format.codec(gson, optionPool);
+        bankCodec = new BinaryRecordCodec(optionPool);
+        quizDir = new File(root, DIR_QUIZZES);
+        if (!quizDir.exists() && !quizDir.mkdirs()) {
+            Log.e(TAG, "Cannot create " + quizDir);
+        }
+        historyLog = new HistoryLog(root, codec);
+        quizIdLog = new RecordLog(new File(root, FILE_QUIZ_IDS));
+        categoryLog = new RecordLog(new File(root, FILE_CATEGORIES));
+    }
+
+    boolean isInitialized() {
+        return new File(root, FILE_MARKER).exists();
+    }
+
+    void markInitialized() {
+        try {
+            new File(root, FILE_MARKER).createNewFile();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write store marker", e);
+        }
+    }
+
+    // ---- Quizzes ----
+
+    /** Loads every quiz as a header only; see {@link #loadQuestions(String)}. */
+    List<Quiz> loadQuizzes() {
+        TreeMap<Long, Quiz> ordered = new TreeMap<>();
+        File[] files = quizDir.listFiles((dir, name) -> name.endsWith(QUIZ_SUFFIX));
+        if (files == null) return new ArrayList<>();
+        for (File file : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new AtomicFile(file).openRead()))) {
+                if (in.readInt() != QUIZ_FORMAT) {
+                    Log.e(TAG, "Unknown quiz record format " + file.getName());
+                    continue;
+                }
+                long sequence = in.readLong();
+                int questionCount = in.readInt();
+                byte[] payload = RecordLog.readFrame(in);
+                if (payload == null) {
+                    Log.e(TAG, "Corrupt quiz record " + file.getName());
+                    continue;
+                }
+                Quiz quiz = codec.decodeHeader(payload);
+                if (quiz == null) continue;
+                quiz.markQuestionsUnloaded(questionCount);
+                sequences.put(quiz.getId(), sequence);
+                nextSequence = Math.max(nextSequence, sequence + 1);
+                ordered.put(sequence, quiz);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Cannot read quiz record " + file.getName(), e);
+            }
+        }
+        return new ArrayList<>(ordered.values());
+    }
+
+    /** Reads the questions of one quiz, or returns null when its record is missing or corrupt. */
+    List<Question> loadQuestions(String quizId) {
+        AtomicFile file = quizFile(quizId);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.openRead()))) {
+            if (in.readInt() != QUIZ_FORMAT) return null;
+            in.readLong();
+            in.readInt();
+            RecordLog.skipFrame(in);
+            byte[] payload = RecordLog.readFrame(in);
+            if (payload == null) {
+                Log.e(TAG, "Corrupt questions for quiz " + quizId);
+                return null;
+            }
+            if (payload.length == 0) {
+                // Empty frame: the questions live in the bank file next to the record
+                return QuestionBank.open(bankFile(quizId).getBaseFile(), bankCodec);
+            }
+            List<Question> questions = codec.decodeQuestions(payload);
+            Log.d(TAG, "Loaded quiz " + quizId + "; " + optionPool.describe());
+            return questions;
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Cannot read questions for quiz " + quizId, e);
+            return null;
+        }
+    }
+
+    /** Makes the options of new or edited questions share the pooled texts. */
+    void internOptions(List<Question> questions) {
+        if (questions instanceof QuestionBank) return; // Decoded through the pool already
+        for (Question question : questions) {
+            optionPool.internAll(question.getOptions());
+        }
+    }
+
+    OptionPool getOptionPool() {
+        return optionPool;
+    }
+
+    /**
+     * Serializes a quiz whose questions are loaded; header-only quizzes must be
+     * materialized first. Safe on any thread, the write itself happens in {@link #putQuiz(QuizRecord)}.
+     */
+    QuizRecord encodeQuiz(Quiz quiz) {
+        List<Question> questions = quiz.getQuestions();
+        byte[] header = codec.encodeHeader(quiz);
+        if (questions.size() < BANK_THRESHOLD) {
+            return new QuizRecord(quiz.getId(), questions.size(), header, codec.encodeQuestions(questions), null, null);
+        }
+        List<byte[]> bank = new ArrayList<>(questions.size());
+        long[] fingerprints = questions instanceof QuestionBank
+                ? ((QuestionBank) questions).fingerprints(false) : new long[questions.size()];
+        int index = 0;
+        for (Question question : questions) {
+            bank.add(bankCodec.encodeQuestion(question));
+            if (fingerprints[index] == 0) {
+                fingerprints[index] = QuestionFingerprint.update(question, false);
+            }
+            index++;
+        }
+        return new QuizRecord(quiz.getId(), questions.size(), header, new byte[0], bank, fingerprints);
+    }
+
+    void putQuiz(Quiz quiz) {
+        putQuiz(encodeQuiz(quiz));
+    }
+
+    void putQuiz(QuizRecord record) {
+        Long sequence = sequences.get(record.quizId);
+        if (sequence == null) {
+            sequence = nextSequence++;
+            sequences.put(record.quizId, sequence);
+        }
+        AtomicFile file = quizFile(record.quizId);
+        FileOutputStream stream = null;
+        try {
+            // Bank first, so a quiz record never points to a bank that was not written
+            if (record.bank != null) {
+                QuestionBank.write(bankFile(record.quizId), record.bank, record.bankFingerprints);
+            }
+            stream = file.startWrite();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(QUIZ_FORMAT);
+            out.writeLong(sequence);
+            out.writeInt(record.questionCount);
+            RecordLog.writeFrame(out, record.header);
+            RecordLog.writeFrame(out, record.questions);
+            out.flush();
+            file.finishWrite(stream);
+            if (record.bank == null) {
+                // The quiz may have shrunk below the threshold
+                bankFile(record.quizId).delete();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write quiz " + record.quizId, e);
+            if (stream != null) file.failWrite(stream);
+        }
+    }
+
+    void deleteQuiz(String quizId) {
+        sequences.remove(quizId);
+        quizFile(quizId).delete();
+        bankFile(quizId).delete();
+    }
+
+    private AtomicFile bankFile(String quizId) {
+        return new AtomicFile(new File(quizDir, quizId + BANK_SUFFIX));
+    }
+
+    private AtomicFile quizFile(String quizId) {
+        return new AtomicFile(new File(quizDir, quizId + QUIZ_SUFFIX));
+    }
+
+    // ---- History ----
+
+    Map<String, List<QuizResult>> loadHistory() {
+        return historyLog.load();
+    }
+
+    // ---- Quiz ID mapping ----
+
+    Map<String, QuizRepository.QuizIdInfo> loadQuizIdMapping() {
+        Map<String, QuizRepository.QuizIdInfo> mapping = new HashMap<>();
+        for (byte[] payload : readLog(quizIdLog)) {
+            QuizIdRecord record = decode(payload, QuizIdRecord.class);
+            if (record == null || record.code == null) continue;
+            // Later records win, so re-using a code simply overrides it
+            mapping.put(record.code, new QuizRepository.QuizIdInfo(record.quizUuid, record.password));
+        }
+        return mapping;
+    }
+
+    // ---- Custom categories ----
+
+    List<String> loadCustomCategories() {
+        List<String> categories = new ArrayList<>();
+        for (byte[] payload : readLog(categoryLog)) {
+            String name = new String(payload, StandardCharsets.UTF_8);
+            if (!name.isEmpty() && !categories.contains(name)) {
+                categories.add(name);
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * Writes a batch of mutations: one file write per touched quiz and a single
+     * append (and fsync) per log, whatever the number of records.
+     */
+    void apply(WriteBatch batch) {
+        for (Map.Entry<String, QuizRecord> entry : batch.quizzes.entrySet()) {
+            if (entry.getValue() == null) {
+                deleteQuiz(entry.getKey());
+            } else {
+                putQuiz(entry.getValue());
+            }
+        }
+        try {
+            if (!batch.results.isEmpty()) {
+                historyLog.appendAll(batch.results);
+            }
+            if (!batch.categories.isEmpty()) {
+                List<byte[]> categories = new ArrayList<>();
+                for (String name : batch.categories) {
+                    categories.add(name.getBytes(StandardCharsets.UTF_8));
+                }
+                categoryLog.appendAll(categories);
+            }
+            if (!batch.quizIds.isEmpty()) {
+                List<byte[]> ids = new ArrayList<>();
+                for (Map.Entry<String, QuizRepository.QuizIdInfo> entry : batch.quizIds.entrySet()) {
+                    ids.add(encode(new QuizIdRecord(entry.getKey(), entry.getValue())));
+                }
+                quizIdLog.appendAll(ids);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write store", e);
+        }
+    }
+
+    /**
+     * Writes a complete data set in one go. Only used when importing the old
+     * SharedPreferences format.
+     */
+    void writeAll(List<Quiz> quizzes, Map<String, List<QuizResult>> history,
+                  List<String> customCategories, Map<String, QuizRepository.QuizIdInfo> quizIdMapping) {
+        WriteBatch batch = new WriteBatch();
+        for (Quiz quiz : quizzes) {
+            batch.quizzes.put(quiz.getId(), encodeQuiz(quiz));
+        }
+        for (List<QuizResult> list : history.values()) {
+            batch.results.addAll(list);
+        }
+        batch.categories.addAll(customCategories);
+        batch.quizIds.putAll(quizIdMapping);
+        apply(batch);
+    }
+
+    private List<byte[]> readLog(RecordLog log) {
+        try {
+            return log.readAll();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot read log", e);
+            return new ArrayList<>();
+        }
+    }
+
+    private byte[] encode(Object value) {
+        return JsonStreams.toBytes(gson, value, value.getClass());
+    }
+
+    private <T> T decode(byte[] payload, Class<T> type) {
+        try {
+            return JsonStreams.fromBytes(gson, payload, type);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Skipping unreadable record", e);
+            return null;
+        }
+    }
+
+    /** A quiz serialized for {@link #putQuiz(QuizRecord)}. */
+    static class QuizRecord {
+        final String quizId;
+        final int questionCount;
+        final byte[] header;
+        final byte[] questions;
+        // Question records for a QuestionBank, or null when the questions are inline
+        final List<byte[]> bank;
+        // Fingerprint of each bank record, kept in the bank header
+        final long[] bankFingerprints;
+
+        QuizRecord(String quizId, int questionCount, byte[] header, byte[] questions, List<byte[]> bank,
+                   long[] bankFingerprints) {
+            this.quizId = quizId;
+            this.questionCount = questionCount;
+            this.header = header;
+            this.questions = questions;
+            this.bank = bank;
+            this.bankFingerprints = bankFingerprints;
+        }
+    }
+
+    private static class QuizIdRecord {
+        String code;
+        String quizUuid;
+        String password;
+
+        QuizIdRecord(String code, QuizRepository.QuizIdInfo info) {
+            this.code = code;
+            this.quizUuid = info.quizUuid;
+            this.password = info.password;
+        }
+    }
+}
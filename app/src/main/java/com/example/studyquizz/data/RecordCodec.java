@@ -0,0 +1,36 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.Quiz;
+import com.example.studyquizz.model.QuizResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoding of the records {@link QuizStore} and {@link HistoryLog} put on disk.
+ * Decoders throw a RuntimeException for a malformed payload.
+ */
+interface RecordCodec {
+    /** Quiz fields without its questions. */
+    byte[] encodeHeader(Quiz quiz);
+
+    Quiz decodeHeader(byte[] payload);
+
+    byte[] encodeQuestions(List<Question> questions);
+
+    List<Question> decodeQuestions(byte[] payload);
+
+    byte[] encodeResult(QuizResult result);
+
+    QuizResult decodeResult(byte[] payload);
+
+    /** Streams a history snapshot; the stream is flushed but not closed. */
+    void writeSnapshot(OutputStream out, long generation, Map<String, List<QuizResult>> history) throws IOException;
+
+    /** Reads a snapshot into {@code history} and returns the generation it covers. */
+    long readSnapshot(InputStream in, Map<String, List<QuizResult>> history) throws IOException;
+}
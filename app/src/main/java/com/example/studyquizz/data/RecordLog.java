@@ -0,0 +1,194 @@
+package com.example.studyquizz.data;
+
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of records. Each record is framed as [length][crc32][payload]
+ * so a record cut short by a crash, or damaged later, fails its checksum and is
+ * dropped on read.
+ * Appends are fsync'd before returning. Records are never empty: an empty frame
+ * would look exactly like the zero bytes a power loss can leave at the tail.
+ */
+class RecordLog {
+    private static final String TAG = "RecordLog";
+    // Upper bound for a single frame; anything larger means the length itself is garbage.
+    static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+    private static final int FRAME_HEADER_SIZE = 8;
+    // Bytes checksummed while looking for the next intact frame, so resynchronizing
+    // over a large damaged region stays linear instead of quadratic
+    private static final int RESYNC_BUDGET = 4 * 1024 * 1024;
+
+    private final File file;
+
+    RecordLog(File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    boolean exists() {
+        return file.exists();
+    }
+
+    synchronized void append(byte[] payload) throws IOException {
+        List<byte[]> single = new ArrayList<>(1);
+        single.add(payload);
+        appendAll(single);
+    }
+
+    synchronized void appendAll(List<byte[]> payloads) throws IOException {
+        if (payloads.isEmpty()) return;
+        for (byte[] payload : payloads) {
+            if (payload.length == 0) throw new IllegalArgumentException("Empty record in " + file.getName());
+        }
+        try (FileOutputStream stream = new FileOutputStream(file, true)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            for (byte[] payload : payloads) {
+                writeFrame(out, payload);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+    }
+
+    /**
+     * Reads every intact record. A frame that fails its checksum in the middle of
+     * the file is skipped and reading resumes at the next intact frame; only a torn
+     * tail left by a crash is cut off, so that later appends start on a clean frame
+     * boundary.
+     */
+    synchronized List<byte[]> readAll() throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        if (!file.exists()) return records;
+        byte[] data = new byte[(int) file.length()];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(data);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int pos = 0;
+        while (pos < data.length) {
+            byte[] payload = frameAt(buffer, pos);
+            if (payload != null) {
+                records.add(payload);
+                pos += FRAME_HEADER_SIZE + payload.length;
+                continue;
+            }
+            int next = nextFrame(buffer, pos);
+            if (next < 0) {
+                // Nothing intact follows: a torn write at the tail
+                Log.w(TAG, "Truncating torn tail of " + file.getName() + " at " + pos);
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(pos);
+                }
+                break;
+            }
+            Log.w(TAG, "Skipping corrupt bytes " + pos + ".." + next + " of " + file.getName());
+            pos = next;
+        }
+        return records;
+    }
+
+    // Start of the next intact frame after a bad one at pos, or -1 if there is none
+    private static int nextFrame(ByteBuffer buffer, int pos) {
+        int limit = buffer.limit();
+        if (limit - pos >= FRAME_HEADER_SIZE) {
+            // Usually only the payload was damaged and the length still points to the next frame
+            int length = buffer.getInt(pos);
+            long skipTo = (long) pos + FRAME_HEADER_SIZE + length;
+            if (length > 0 && skipTo < limit && frameAt(buffer, (int) skipTo) != null) {
+                return (int) skipTo;
+            }
+        }
+        // The length itself is garbage: resynchronize on the first offset holding an intact frame.
+        // Offsets whose length cannot fit are rejected without a checksum; past the budget the
+        // rest is given up as a torn tail.
+        long budget = RESYNC_BUDGET;
+        for (int candidate = pos + 1; candidate + FRAME_HEADER_SIZE <= limit; candidate++) {
+            int length = buffer.getInt(candidate);
+            if (!plausibleLength(buffer, candidate, length)) continue;
+            if (frameAt(buffer, candidate) != null) return candidate;
+            budget -= length;
+            if (budget < 0) {
+                Log.w(TAG, "Giving up resync after " + (candidate - pos) + " bytes");
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] frameAt(ByteBuffer buffer, int pos) {
+        if (buffer.limit() - pos < FRAME_HEADER_SIZE) return null;
+        int length = buffer.getInt(pos);
+        if (!plausibleLength(buffer, pos, length)) return null;
+        // Checked in place, so resynchronizing does not copy every candidate
+        int start = pos + FRAME_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, length);
+        if ((int) crc.getValue() != buffer.getInt(pos + 4)) return null;
+        return Arrays.copyOfRange(buffer.array(), start, start + length);
+    }
+
+    // Log records are never empty, so a zero length is a zero-filled tail, not a record
+    private static boolean plausibleLength(ByteBuffer buffer, int pos, int length) {
+        return length > 0 && length <= MAX_FRAME_SIZE && length <= buffer.limit() - pos - FRAME_HEADER_SIZE;
+    }
+
+    /**
+     * Writes one frame. Quiz records use an empty frame on purpose, but records
+     * appended to a log must not be empty; {@link #appendAll} enforces that.
+     */
+    static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+
+    /** Skips the next frame without reading or checking its payload. */
+    static void skipFrame(DataInputStream in) throws IOException {
+        int remaining = in.readInt();
+        in.readInt();
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) throw new EOFException();
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Reads the next frame, or returns null at end of stream or when the frame is
+     * incomplete or fails its checksum.
+     */
+    static byte[] readFrame(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 0 || length > MAX_FRAME_SIZE) return null;
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.util.TextFolding;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index from folded words to quiz ids.
+ * Every query word is matched as a prefix and the results are intersected, so
+ * "cau h" finds quizzes containing both "câu" and a word starting with "h".
+ */
+class SearchIndex {
+    // Sorted so that all words sharing a prefix form one contiguous range
+    private final TreeMap<String, Set<String>> postings = new TreeMap<>();
+    // Words each quiz was indexed under, to undo them on update or delete
+    private final Map<String, Set<String>> quizWords = new HashMap<>();
+
+    void put(String quizId, Collection<String> texts) {
+        remove(quizId);
+        Set<String> words = new HashSet<>();
+        for (String text : texts) {
+            words.addAll(TextFolding.tokenize(text));
+        }
+        for (String word : words) {
+            Set<String> ids = postings.get(word);
+            if (ids == null) {
+                ids = new HashSet<>();
+                postings.put(word, ids);
+            }
+            ids.add(quizId);
+        }
+        quizWords.put(quizId, words);
+    }
+
+    void remove(String quizId) {
+        Set<String> words = quizWords.remove(quizId);
+        if (words == null) return;
+        for (String word : words) {
+            Set<String> ids = postings.get(word);
+            if (ids == null) continue;
+            ids.remove(quizId);
+            if (ids.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        quizWords.clear();
+    }
+
+    Set<String> search(String query) {
+        List<String> words = TextFolding.tokenize(query);
+        // Longer prefixes match fewer words, so start with them to keep the candidate set small
+        words.sort((x, y) -> Integer.compare(y.length(), x.length()));
+        Set<String> result = null;
+        for (String word : words) {
+            result = prefixMatches(word, result);
+            if (result.isEmpty()) break;
+        }
+        return result != null ? result : new LinkedHashSet<>();
+    }
+
+    // Ids indexed under any word starting with prefix, limited to candidates when given
+    private Set<String> prefixMatches(String prefix, Set<String> candidates) {
+        Set<String> matches = new LinkedHashSet<>();
+        // '\uffff' sorts after every character that can follow the prefix
+        SortedMap<String, Set<String>> range = postings.subMap(prefix, prefix + '\uffff');
+        for (Set<String> ids : range.values()) {
+            if (candidates == null) {
+                matches.addAll(ids);
+            } else {
+                for (String id : ids) {
+                    if (candidates.contains(id)) {
+                        matches.add(id);
+                    }
+                }
+            }
+            if (candidates != null && matches.size() == candidates.size()) break;
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.Quiz;
+import com.example.studyquizz.model.QuizResult;
+import com.google.gson.Gson;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk format of the store. New records are written in the selected format,
+ * while every record is read in whichever format it was written, told apart by
+ * its first byte, so switching formats needs no migration.
+ */
+enum StoreFormat {
+    JSON,
+    BINARY;
+
+    RecordCodec codec(Gson gson, OptionPool optionPool) {
+        JsonRecordCodec json = new JsonRecordCodec(gson, optionPool);
+        BinaryRecordCodec binary = new BinaryRecordCodec(optionPool);
+        return new DetectingCodec(this == BINARY ? binary : json, json, binary);
+    }
+
+    private static class DetectingCodec implements RecordCodec {
+        private final RecordCodec writer;
+        private final JsonRecordCodec json;
+        private final BinaryRecordCodec binary;
+
+        DetectingCodec(RecordCodec writer, JsonRecordCodec json, BinaryRecordCodec binary) {
+            this.writer = writer;
+            this.json = json;
+            this.binary = binary;
+        }
+
+        private RecordCodec reader(byte[] payload) {
+            return BinaryRecordCodec.isBinary(payload) ? binary : json;
+        }
+
+        @Override
+        public byte[] encodeHeader(Quiz quiz) {
+            return writer.encodeHeader(quiz);
+        }
+
+        @Override
+        public Quiz decodeHeader(byte[] payload) {
+            return reader(payload).decodeHeader(payload);
+        }
+
+        @Override
+        public byte[] encodeQuestions(List<Question> questions) {
+            return writer.encodeQuestions(questions);
+        }
+
+        @Override
+        public List<Question> decodeQuestions(byte[] payload) {
+            return reader(payload).decodeQuestions(payload);
+        }
+
+        @Override
+        public byte[] encodeResult(QuizResult result) {
+            return writer.encodeResult(result);
+        }
+
+        @Override
+        public QuizResult decodeResult(byte[] payload) {
+            return reader(payload).decodeResult(payload);
+        }
+
+        @Override
+        public void writeSnapshot(OutputStream out, long generation, Map<String, List<QuizResult>> history) throws IOException {
+            writer.writeSnapshot(out, generation, history);
+        }
+
+        @Override
+        public long readSnapshot(InputStream in, Map<String, List<QuizResult>> history) throws IOException {
+            BufferedInputStream buffered = new BufferedInputStream(in);
+            buffered.mark(1);
+            int first = buffered.read();
+            buffered.reset();
+            RecordCodec codec = first == BinaryRecordCodec.MAGIC ? binary : json;
+            return codec.readSnapshot(buffered, history);
+        }
+    }
+}
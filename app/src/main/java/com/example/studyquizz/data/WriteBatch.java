@@ -0,0 +1,24 @@
+package com.example.studyquizz.data;
+
+import com.example.studyquizz.model.QuizResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mutations collected by {@link QuizRepository} and written by {@link QuizStore#apply}
+ * in one go: each log gets a single append and each touched quiz file one write.
+ */
+class WriteBatch {
+    // Latest state per quiz id; null means the quiz was deleted
+    final Map<String, QuizStore.QuizRecord> quizzes = new LinkedHashMap<>();
+    final List<QuizResult> results = new ArrayList<>();
+    final Map<String, QuizRepository.QuizIdInfo> quizIds = new LinkedHashMap<>();
+    final List<String> categories = new ArrayList<>();
+
+    boolean isEmpty() {
+        return quizzes.isEmpty() && results.isEmpty() && quizIds.isEmpty() && categories.isEmpty();
+    }
+}
@@ -11,6 +11,8 @@ public class Question implements Serializable {
     private List<String> options;
     private int correctIndex;
     private QuestionType type;
+    // Vân tay nội dung để phát hiện câu trùng; QuizRepository tính lại mỗi lần lưu, 0 là chưa có
+    private long fingerprint;
 
     public Question() {
         this.id = UUID.randomUUID().toString();
@@ -25,11 +27,25 @@ public class Question implements Serializable {
         this.type = type;
     }
 
+    /** Bản sao độc lập, kể cả danh sách đáp án, để luồng khác đọc mà không thấy sửa đổi sau này. */
+    public Question(Question other) {
+        this.id = other.id;
+        this.content = other.content;
+        this.options = other.options == null ? new ArrayList<>() : new ArrayList<>(other.options);
+        this.correctIndex = other.correctIndex;
+        this.type = other.type;
+        this.fingerprint = other.fingerprint;
+    }
+
     public String getId() {
         if (id == null) id = UUID.randomUUID().toString();
         return id;
     }
 
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public String getContent() {
         return content;
     }
@@ -61,5 +77,13 @@ public class Question implements Serializable {
     public void setType(QuestionType type) {
         this.type = type;
     }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
 }
 
@@ -12,6 +12,9 @@ public class Quiz {
     private String customCategory;
     private List<Question> questions;
     private int durationMinutes; // Thời gian làm bài (phút)
+    // Khi chỉ nạp phần header, danh sách câu hỏi chưa có và số câu được giữ riêng
+    private transient boolean questionsLoaded = true;
+    private transient int questionCount;
 
     public Quiz() {
         this.id = UUID.randomUUID().toString();
@@ -33,6 +36,10 @@ public class Quiz {
         return id;
     }
 
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -65,12 +72,61 @@ public class Quiz {
         this.customCategory = customCategory;
     }
 
+    /** Danh mục hiển thị: danh mục tự tạo nếu có, ngược lại là danh mục có sẵn. */
+    public String getEffectiveCategory() {
+        return customCategory != null && !customCategory.isEmpty() ? customCategory : category;
+    }
+
     public List<Question> getQuestions() {
         return questions;
     }
 
     public void setQuestions(List<Question> questions) {
         this.questions = questions == null ? new ArrayList<>() : new ArrayList<>(questions);
+        this.questionsLoaded = true;
+    }
+
+    /**
+     * Dùng trực tiếp danh sách câu hỏi mà không sao chép, để ngân hàng câu hỏi
+     * đọc từ file không bị nạp toàn bộ vào bộ nhớ.
+     */
+    public void attachQuestions(List<Question> questions) {
+        this.questions = questions;
+        this.questionsLoaded = true;
+    }
+
+    /**
+     * Chép câu hỏi sang một ArrayList thường trước khi sửa tại chỗ. Ngân hàng câu hỏi
+     * ánh xạ từ file trả về bản giải mã tạm khi duyệt, nên sửa trên bản đó sẽ bị mất.
+     */
+    public void detachQuestions() {
+        if (!(questions instanceof ArrayList)) {
+            List<Question> copy = new ArrayList<>(questions.size());
+            for (int i = 0; i < questions.size(); i++) {
+                // get() giữ lại câu đã giải mã, nên câu đã được sửa trước đó không bị thay
+                copy.add(questions.get(i));
+            }
+            questions = copy;
+        }
+    }
+
+    /**
+     * Đánh dấu quiz chỉ có phần header: câu hỏi vẫn nằm trên đĩa tới khi repository
+     * nạp vào, nhưng số câu vẫn biết được để hiển thị trong danh sách.
+     */
+    public void markQuestionsUnloaded(int questionCount) {
+        this.questions = new ArrayList<>();
+        this.questionCount = questionCount;
+        this.questionsLoaded = false;
+    }
+
+    public boolean isQuestionsLoaded() {
+        return questionsLoaded;
+    }
+
+    public int getQuestionCount() {
+        if (!questionsLoaded) return questionCount;
+        return questions != null ? questions.size() : 0;
     }
 
     public void addQuestion(Question question) {
@@ -82,7 +138,8 @@ public class Quiz {
     }
 
     public void setDurationMinutes(int durationMinutes) {
-        this.durationMinutes = durationMinutes > 0 ? durationMinutes : 15; // Default to 15 if invalid
+        // 0 = không đặt giới hạn riêng (khi làm bài tính 1 phút mỗi câu); số âm về mặc định 15
+        this.durationMinutes = durationMinutes >= 0 ? durationMinutes : 15;
     }
 }
 
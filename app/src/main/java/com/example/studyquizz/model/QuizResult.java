@@ -1,9 +1,8 @@
 package com.example.studyquizz.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class QuizResult {
+    public static final int NO_ANSWER = -1;
+
     private String quizId;
     private String quizTitle;
     private int correctCount;
@@ -13,10 +12,12 @@ public class QuizResult {
     private int completionRate;
     private long timestamp;
     private long duration; // Thời gian làm bài thực tế (milliseconds)
-    private List<Integer> userAnswers; // Danh sách câu trả lời của người dùng (-1 = chưa trả lời)
+    // Đáp án đã chọn của từng câu (-1 = chưa trả lời); lưu dạng byte vì chỉ số đáp án rất nhỏ.
+    // Gson đọc/ghi byte[] như mảng số JSON nên lịch sử cũ vẫn đọc được.
+    private byte[] userAnswers;
 
     public QuizResult() {
-        this.userAnswers = new ArrayList<>();
+        this.userAnswers = new byte[0];
     }
 
     public QuizResult(String quizId, String quizTitle, int correctCount, int wrongCount, int total, int score, int completionRate, long timestamp) {
@@ -29,7 +30,7 @@ public class QuizResult {
         this.completionRate = completionRate;
         this.timestamp = timestamp;
         this.duration = 0; // Default 0 for backward compatibility
-        this.userAnswers = new ArrayList<>();
+        this.userAnswers = new byte[0];
     }
 
     public QuizResult(String quizId, String quizTitle, int correctCount, int wrongCount, int total, int score, int completionRate, long timestamp, long duration) {
@@ -42,10 +43,10 @@ public class QuizResult {
         this.completionRate = completionRate;
         this.timestamp = timestamp;
         this.duration = duration;
-        this.userAnswers = new ArrayList<>();
+        this.userAnswers = new byte[0];
     }
 
-    public QuizResult(String quizId, String quizTitle, int correctCount, int wrongCount, int total, int score, int completionRate, long timestamp, long duration, List<Integer> userAnswers) {
+    public QuizResult(String quizId, String quizTitle, int correctCount, int wrongCount, int total, int score, int completionRate, long timestamp, long duration, byte[] userAnswers) {
         this.quizId = quizId;
         this.quizTitle = quizTitle;
         this.correctCount = correctCount;
@@ -55,7 +56,7 @@ public class QuizResult {
         this.completionRate = completionRate;
         this.timestamp = timestamp;
         this.duration = duration;
-        this.userAnswers = userAnswers != null ? new ArrayList<>(userAnswers) : new ArrayList<>();
+        this.userAnswers = userAnswers != null ? userAnswers : new byte[0];
     }
 
     public String getQuizId() {
@@ -98,15 +99,19 @@ public class QuizResult {
         this.duration = duration;
     }
 
-    public List<Integer> getUserAnswers() {
-        if (userAnswers == null) {
-            userAnswers = new ArrayList<>();
-        }
-        return userAnswers;
+    public int getAnswerCount() {
+        return userAnswers != null ? userAnswers.length : 0;
+    }
+
+    /** Chỉ số đáp án đã chọn của câu {@code index}, hoặc {@link #NO_ANSWER}. */
+    public int getAnswerAt(int index) {
+        if (userAnswers == null || index < 0 || index >= userAnswers.length) return NO_ANSWER;
+        return userAnswers[index];
     }
 
-    public void setUserAnswers(List<Integer> userAnswers) {
-        this.userAnswers = userAnswers != null ? new ArrayList<>(userAnswers) : new ArrayList<>();
+    /** Mảng được giữ nguyên, không sao chép; người gọi không sửa lại sau khi truyền vào. */
+    public void setUserAnswers(byte[] userAnswers) {
+        this.userAnswers = userAnswers != null ? userAnswers : new byte[0];
     }
 }
 
@@ -28,7 +28,6 @@ public class HistoryActivity extends AppCompatActivity {
         binding = ActivityHistoryBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        repository = QuizRepository.getInstance(this);
         adapter = new HistoryAdapter();
         binding.recyclerHistory.setLayoutManager(new LinearLayoutManager(this));
         binding.recyclerHistory.setAdapter(adapter);
@@ -36,7 +35,12 @@ public class HistoryActivity extends AppCompatActivity {
         // Back button
         binding.btnBack.setOnClickListener(v -> finish());
         
-        loadData();
+        // Có thể mở lại thẳng màn này sau khi tiến trình bị hủy, nên không đọc dữ liệu trên luồng UI
+        QuizRepository.getInstanceAsync(this, loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            repository = loaded;
+            loadData();
+        });
     }
 
     private void loadData() {
@@ -23,8 +23,14 @@ public class JoinQuizActivity extends AppCompatActivity {
             binding = ActivityJoinQuizBinding.inflate(getLayoutInflater());
             setContentView(binding.getRoot());
 
-            repository = QuizRepository.getInstance(this);
             setupViews();
+            // Tìm quiz cần repository, nên chờ nạp xong mới cho bấm tiếp
+            binding.btnNext.setEnabled(false);
+            QuizRepository.getInstanceAsync(this, loaded -> {
+                if (isFinishing() || isDestroyed()) return;
+                repository = loaded;
+                binding.btnNext.setEnabled(true);
+            });
         } catch (Exception e) {
             e.printStackTrace();
             Toast.makeText(this, "Lỗi: " + e.getMessage(), Toast.LENGTH_LONG).show();
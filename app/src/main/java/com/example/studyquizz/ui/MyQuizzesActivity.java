@@ -1,6 +1,8 @@
 package com.example.studyquizz.ui;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -14,10 +16,13 @@ import com.example.studyquizz.ui.adapter.QuizAdapter;
 import java.util.List;
 
 public class MyQuizzesActivity extends AppCompatActivity implements QuizAdapter.OnQuizClickListener {
+    // Tùy chọn: chỉ hiển thị quiz thuộc danh mục này
+    public static final String EXTRA_CATEGORY = "category";
 
     private ActivityMyQuizzesBinding binding;
     private QuizRepository repository;
     private QuizAdapter adapter;
+    private String category;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,20 +38,29 @@ public class MyQuizzesActivity extends AppCompatActivity implements QuizAdapter.
         binding = ActivityMyQuizzesBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        repository = QuizRepository.getInstance(this);
-        setupViews();
-        loadQuizzes();
+        category = getIntent().getStringExtra(EXTRA_CATEGORY);
+        QuizRepository.getInstanceAsync(this, loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            repository = loaded;
+            setupViews();
+            loadQuizzes();
+        });
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadQuizzes();
+        if (repository != null) {
+            loadQuizzes();
+        }
     }
 
     private void setupViews() {
         // Back button
         binding.btnBack.setOnClickListener(v -> finish());
+        if (category != null) {
+            binding.txtTitle.setText(category);
+        }
 
         // Setup RecyclerView với tối ưu hiệu năng
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
@@ -63,10 +77,44 @@ public class MyQuizzesActivity extends AppCompatActivity implements QuizAdapter.
         adapter = new QuizAdapter(this);
         adapter.setRepository(repository);
         binding.recyclerQuizzes.setAdapter(adapter);
+
+        // Tìm kiếm theo tên quiz, mô tả, câu hỏi và đáp án (không phân biệt dấu)
+        binding.inputSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                loadQuizzes();
+            }
+        });
     }
 
     private void loadQuizzes() {
-        List<Quiz> quizzes = repository.getQuizzes();
+        String query = binding.inputSearch.getText().toString().trim();
+        if (!query.isEmpty()) {
+            // Lần tìm đầu tiên cần dựng chỉ mục trên luồng I/O
+            repository.searchQuizzesAsync(query, found -> {
+                // Bỏ kết quả cũ nếu người dùng đã gõ tiếp
+                if (isDestroyed() || !query.equals(binding.inputSearch.getText().toString().trim())) return;
+                if (category != null) {
+                    found.removeIf(quiz -> !category.equals(quiz.getEffectiveCategory()));
+                }
+                showQuizzes(found);
+            });
+        } else if (category != null) {
+            showQuizzes(repository.getQuizzesByCategory(category));
+        } else {
+            showQuizzes(repository.getQuizzes());
+        }
+    }
+
+    private void showQuizzes(List<Quiz> quizzes) {
         adapter.submit(quizzes);
         binding.recyclerQuizzes.setVisibility(quizzes.isEmpty() ? View.GONE : View.VISIBLE);
         binding.emptyView.setVisibility(quizzes.isEmpty() ? View.VISIBLE : View.GONE);
@@ -118,7 +166,7 @@ public class MyQuizzesActivity extends AppCompatActivity implements QuizAdapter.
     }
 
     private void startPlay(Quiz quiz, String mode) {
-        if (quiz.getQuestions().isEmpty()) {
+        if (quiz.getQuestionCount() == 0) {
             android.widget.Toast.makeText(this, com.example.studyquizz.R.string.no_question_warning, android.widget.Toast.LENGTH_SHORT).show();
             return;
         }
@@ -1,5 +1,6 @@
 package com.example.studyquizz.ui;
 
+import android.content.ClipData;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
@@ -22,17 +23,28 @@ import com.example.studyquizz.model.QuestionType;
 import com.example.studyquizz.model.Quiz;
 import com.example.studyquizz.ui.adapter.QuestionReviewAdapter;
 import com.example.studyquizz.ui.adapter.QuestionSummaryAdapter;
-import com.example.studyquizz.util.ImportHelper;
+import com.example.studyquizz.util.BatchImportJob;
+import com.example.studyquizz.util.ImportJob;
+import com.example.studyquizz.util.PdfSupport;
+import com.example.studyquizz.util.QuestionSource;
+import com.example.studyquizz.util.QuestionSources;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 public class QuizBuilderActivity extends AppCompatActivity implements QuestionSummaryAdapter.OnActionListener, QuestionReviewAdapter.OnActionListener {
     public static final String EXTRA_QUIZ_ID = "quiz_id";
 
     private ActivityQuizBuilderBinding binding;
     private QuizRepository repository;
+    private ImportJob importJob;
+    private BatchImportJob batchImportJob;
     private Quiz currentQuiz;
     private QuestionSummaryAdapter adapter;
     private QuestionReviewAdapter reviewAdapter;
@@ -90,9 +102,19 @@ public class QuizBuilderActivity extends AppCompatActivity implements QuestionSu
         binding = ActivityQuizBuilderBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        repository = QuizRepository.getInstance(this);
+        // Chuẩn bị PDFBox trong lúc người dùng điền form, để lần import PDF đầu không phải chờ
+        PdfSupport.warmUpAsync(this);
         setupViews();
-        loadQuizIfAny();
+        // Chờ nạp repository như khi chờ đọc câu hỏi của quiz đang sửa
+        binding.btnContinue.setEnabled(false);
+        binding.btnImport.setEnabled(false);
+        QuizRepository.getInstanceAsync(this, loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            repository = loaded;
+            binding.btnContinue.setEnabled(true);
+            binding.btnImport.setEnabled(true);
+            loadQuizIfAny();
+        });
     }
 
     private void setupViews() {
@@ -114,18 +136,17 @@ public class QuizBuilderActivity extends AppCompatActivity implements QuestionSu
 
         // Import File button
         binding.btnImport.setOnClickListener(v -> {
-            // Open file picker for PDF and DOCX files
+            // Open file picker for every format QuestionSources knows
             try {
                 Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
                 intent.setType("*/*");
-                String[] mimeTypes = {
-                    "application/pdf",
-                    "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
-                    "application/msword"
-                };
-                intent.putExtra(Intent.EXTRA_MIME_TYPES, mimeTypes);
+                List<String> mimeTypes = new ArrayList<>(Arrays.asList(QuestionSources.getMimeTypes()));
+                mimeTypes.add("application/zip");
+                intent.putExtra(Intent.EXTRA_MIME_TYPES, mimeTypes.toArray(new String[0]));
+                // Chọn nhiều file (hoặc một file ZIP) thì mỗi file thành một quiz riêng
+                intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
                 intent.addCategory(Intent.CATEGORY_OPENABLE);
-                Intent chooser = Intent.createChooser(intent, "Chọn file PDF hoặc DOCX");
+                Intent chooser = Intent.createChooser(intent, "Chọn file câu hỏi");
                 if (chooser.resolveActivity(getPackageManager()) != null) {
                     startActivityForResult(chooser, 100);
                 } else {
@@ -161,22 +182,30 @@ public class QuizBuilderActivity extends AppCompatActivity implements QuestionSu
     }
 
     private void generateQuizIdAndPassword() {
-        // Generate Quiz ID (format: XXX XXX XXXX)
         Random random = new Random();
+        generatedQuizId = newQuizCode(random);
+        binding.txtQuizId.setText(generatedQuizId);
+
+        generatedPassword = newPassword(random);
+        binding.txtQuizPassword.setText(generatedPassword);
+    }
+
+    // Generate Quiz ID (format: XXX XXX XXXX)
+    private static String newQuizCode(Random random) {
         int part1 = 100 + random.nextInt(900); // 100-999
         int part2 = 100 + random.nextInt(900); // 100-999
         int part3 = 1000 + random.nextInt(9000); // 1000-9999
-        generatedQuizId = part1 + " " + part2 + " " + part3;
-        binding.txtQuizId.setText(generatedQuizId);
+        return part1 + " " + part2 + " " + part3;
+    }
 
-        // Generate Password (alphanumeric, 6 characters)
+    // Generate Password (alphanumeric, 6 characters)
+    private static String newPassword(Random random) {
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
         StringBuilder password = new StringBuilder();
         for (int i = 0; i < 6; i++) {
             password.append(chars.charAt(random.nextInt(chars.length())));
         }
-        generatedPassword = password.toString();
-        binding.txtQuizPassword.setText(generatedPassword);
+        return password.toString();
     }
 
     private void showEditPasswordDialog() {
@@ -293,12 +322,28 @@ public class QuizBuilderActivity extends AppCompatActivity implements QuestionSu
 
     private void loadQuizIfAny() {
         String quizId = getIntent().getStringExtra(EXTRA_QUIZ_ID);
-        if (quizId != null) {
-            currentQuiz = repository.getQuizById(quizId);
+        if (!repository.containsQuiz(quizId)) {
+            bindQuiz(null);
+            return;
         }
+        // Chờ đọc câu hỏi xong mới cho thao tác với form
+        binding.btnContinue.setEnabled(false);
+        binding.btnImport.setEnabled(false);
+        repository.loadQuizAsync(quizId, loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            binding.btnContinue.setEnabled(true);
+            binding.btnImport.setEnabled(true);
+            bindQuiz(loaded);
+        });
+    }
+
+    private void bindQuiz(Quiz loaded) {
+        currentQuiz = loaded;
         if (currentQuiz == null) {
             currentQuiz = new Quiz("", "", null, null);
         } else {
+            // Màn này sửa câu hỏi tại chỗ, nên không làm việc trên ngân hàng câu hỏi ánh xạ từ file
+            currentQuiz.detachQuestions();
             binding.inputTitle.setText(currentQuiz.getTitle());
             // Load duration from quiz
             if (currentQuiz.getDurationMinutes() > 0) {
@@ -361,78 +406,220 @@ public class QuizBuilderActivity extends AppCompatActivity implements QuestionSu
         }
     }
 
-    // Lấy tên file hiển thị từ Uri để show lên nút Import
-    private String getFileNameFromUri(Uri uri) {
-        String result = null;
-        if ("content".equals(uri.getScheme())) {
-            android.database.Cursor cursor = getContentResolver()
-                    .query(uri, null, null, null, null);
-            if (cursor != null) {
-                try {
-                    int nameIndex = cursor.getColumnIndex(android.provider.OpenableColumns.DISPLAY_NAME);
-                    if (nameIndex >= 0 && cursor.moveToFirst()) {
-                        result = cursor.getString(nameIndex);
-                    }
-                } finally {
-                    cursor.close();
+    private void handleImport(Uri uri) {
+        if (uri == null) return;
+        String fileName = ImportJob.displayName(this, uri);
+        String mime = getContentResolver().getType(uri);
+        if (BatchImportJob.isZip(mime, fileName)) {
+            handleBatchImport(Collections.singletonList(uri));
+            return;
+        }
+        QuestionSource source = QuestionSources.forFile(mime, fileName != null ? fileName : uri.toString());
+        if (importJob != null) importJob.cancel();
+        binding.btnImport.setEnabled(false);
+        binding.btnImport.setText(getString(R.string.import_reading));
+        // Đọc file trên luồng nền; câu hỏi hiện dần trong màn review khi tìm thấy
+        importJob = ImportJob.start(this, uri, source, new ImportJob.Callback() {
+            private boolean started;
+            private boolean failed;
+
+            @Override
+            public void onProgress(int done, int total) {
+                binding.btnImport.setText(getString(R.string.import_progress, done, total));
+            }
+
+            @Override
+            public void onQuestions(List<Question> questions) {
+                if (!started) {
+                    started = true;
+                    currentQuiz.getQuestions().clear(); // Clear existing questions
+                    reviewAdapter.submit(currentQuiz.getQuestions());
+                    showReviewScreen();
                 }
+                currentQuiz.getQuestions().addAll(questions);
+                reviewAdapter.append(questions);
+                // Update number of questions field with imported count
+                binding.inputNumberOfQuestion.setText(String.valueOf(currentQuiz.getQuestions().size()));
             }
-        }
-        if (result == null) {
-            result = uri.getLastPathSegment();
-            if (result != null) {
-                int slash = result.lastIndexOf('/');
-                if (slash >= 0 && slash < result.length() - 1) {
-                    result = result.substring(slash + 1);
+
+            @Override
+            public void onError(RuntimeException e) {
+                failed = true;
+                Toast.makeText(QuizBuilderActivity.this, "Lỗi đọc file: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onFailed(IOException e) {
+                // Câu đọc được trước chỗ lỗi vẫn được giữ, nhưng người dùng cần biết vì sao file dừng giữa chừng
+                failed = true;
+                Toast.makeText(QuizBuilderActivity.this, "Lỗi đọc file: " + ImportJob.describeFailure(e), Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onFinished(int questionCount) {
+                importJob = null;
+                binding.btnImport.setEnabled(true);
+                if (questionCount > 0) {
+                    skipDuplicates();
+                    // Update import button text to show imported file name
+                    if (fileName != null && !fileName.isEmpty()) {
+                        binding.btnImport.setText(fileName);
+                    } else {
+                        binding.btnImport.setText(getString(R.string.import_file_done));
+                    }
+                    Toast.makeText(QuizBuilderActivity.this, "Đã import " + questionCount + " câu hỏi", Toast.LENGTH_SHORT).show();
+                } else {
+                    binding.btnImport.setText(getString(R.string.import_file));
+                    if (!failed) {
+                        Toast.makeText(QuizBuilderActivity.this, "Không đọc được dữ liệu câu hỏi. Vui lòng kiểm tra định dạng file.", Toast.LENGTH_LONG).show();
+                    }
                 }
             }
-        }
-        return result;
+        });
     }
 
+    // Bỏ những câu đã có trong quiz khác hoặc lặp lại trong chính file vừa import
+    private void skipDuplicates() {
+        List<Question> imported = currentQuiz.getQuestions();
+        repository.findDuplicateQuestionsAsync(new ArrayList<>(imported), currentQuiz.getId(), duplicates -> {
+            if (duplicates.isEmpty() || isFinishing()) return;
+            Set<Question> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+            skipped.addAll(duplicates);
+            imported.removeIf(skipped::contains);
+            reviewAdapter.submit(imported);
+            binding.inputNumberOfQuestion.setText(String.valueOf(imported.size()));
+            Toast.makeText(this, "Bỏ qua " + duplicates.size() + " câu hỏi đã có", Toast.LENGTH_SHORT).show();
+        });
+    }
 
-    private void handleImport(Uri uri) {
-        if (uri == null) return;
-        String fileName = getFileNameFromUri(uri);
-        String lower = uri.toString().toLowerCase();
-        List<Question> imported = new ArrayList<>();
-        String mime = getContentResolver().getType(uri);
-        if (mime != null && mime.contains("word")) {
-            imported = ImportHelper.parseFromDocx(this, uri);
-        } else if (mime != null && mime.contains("pdf")) {
-            imported = ImportHelper.parseFromPdf(this, uri);
-        } else if (lower.contains(".docx")) {
-            imported = ImportHelper.parseFromDocx(this, uri);
-        } else if (lower.contains(".pdf")) {
-            imported = ImportHelper.parseFromPdf(this, uri);
-        } else {
-            imported = ImportHelper.parseFromPdf(this, uri);
+    private void handleBatchImport(List<Uri> uris) {
+        if (importJob != null) importJob.cancel();
+        if (batchImportJob != null) batchImportJob.cancel();
+        binding.btnImport.setEnabled(false);
+        binding.btnImport.setText(getString(R.string.import_reading));
+        batchImportJob = BatchImportJob.start(this, uris, new BatchImportJob.Callback() {
+            @Override
+            public void onProgress(int filesDone, int fileCount) {
+                binding.btnImport.setText(getString(R.string.import_batch_progress, filesDone, fileCount));
+            }
+
+            @Override
+            public void onFinished(List<BatchImportJob.FileResult> results) {
+                batchImportJob = null;
+                binding.btnImport.setEnabled(true);
+                binding.btnImport.setText(getString(R.string.import_file));
+                // Câu trùng được lọc khi lưu, nên cần chỉ mục vân tay trước
+                repository.loadDuplicateIndexAsync(() -> {
+                    if (!isFinishing()) pickBatchCategory(results);
+                });
+            }
+        });
+    }
+
+    // Hỏi một danh mục chung cho các quiz sắp tạo, để chúng hiện trong ô danh mục và bộ lọc
+    private void pickBatchCategory(List<BatchImportJob.FileResult> results) {
+        boolean anyImported = false;
+        for (BatchImportJob.FileResult result : results) {
+            anyImported |= result.getStatus() == BatchImportJob.Status.OK;
         }
-        if (!imported.isEmpty()) {
-            currentQuiz.getQuestions().clear(); // Clear existing questions
-            currentQuiz.getQuestions().addAll(imported);
-            reviewAdapter.submit(currentQuiz.getQuestions());
-            
-            // Update number of questions field with imported count
-            int totalImported = currentQuiz.getQuestions().size();
-            binding.inputNumberOfQuestion.setText(String.valueOf(totalImported));
-            
-            // Update import button text to show imported file name
-            if (fileName != null && !fileName.isEmpty()) {
-                binding.btnImport.setText(fileName);
-            } else {
-                binding.btnImport.setText(getString(R.string.import_file_done));
+        if (!anyImported) {
+            saveBatch(results, null, null);
+            return;
+        }
+        List<String> builtIn = Arrays.asList(getString(R.string.science), getString(R.string.geography),
+                getString(R.string.sports), getString(R.string.biology));
+        List<String> choices = new ArrayList<>(builtIn);
+        for (String custom : repository.getCustomCategories()) {
+            if (!choices.contains(custom)) choices.add(custom);
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Chọn danh mục cho các quiz mới")
+                .setCancelable(false)
+                .setItems(choices.toArray(new String[0]), (dialog, which) -> {
+                    String chosen = choices.get(which);
+                    if (which < builtIn.size()) {
+                        saveBatch(results, chosen, null);
+                    } else {
+                        saveBatch(results, null, chosen);
+                    }
+                })
+                .show();
+    }
+
+    // Mỗi file đọc được thành một quiz; tất cả được ghi xuống đĩa trong một lần
+    private void saveBatch(List<BatchImportJob.FileResult> results, String category, String customCategory) {
+        Random random = new Random();
+        StringBuilder report = new StringBuilder();
+        int created = 0;
+        repository.beginBatch();
+        for (BatchImportJob.FileResult result : results) {
+            String name = result.getName() != null ? result.getName() : "?";
+            if (result.getStatus() != BatchImportJob.Status.OK) {
+                report.append("✗ ").append(name).append(": ").append(describeFailure(result)).append('\n');
+                continue;
+            }
+            // Quiz tạo từ file trước đã nằm trong chỉ mục, nên file chồng lấn cũng được lọc
+            List<Question> questions = new ArrayList<>(result.getQuestions());
+            List<Question> duplicates = repository.findDuplicateQuestions(questions, null);
+            Set<Question> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+            skipped.addAll(duplicates);
+            questions.removeIf(skipped::contains);
+            if (questions.isEmpty()) {
+                report.append("✗ ").append(name).append(": ").append(duplicates.size())
+                        .append(" câu đều đã có").append('\n');
+                continue;
+            }
+            int dot = name.lastIndexOf('.');
+            Quiz quiz = new Quiz(dot > 0 ? name.substring(0, dot) : name, "", category, customCategory);
+            quiz.setQuestions(questions);
+            quiz.setDescription("Thời gian: " + quiz.getDurationMinutes() + " phút, Số câu hỏi: " + quiz.getQuestions().size());
+            String quizCode = newQuizCode(random);
+            String password = newPassword(random);
+            repository.addQuiz(quiz);
+            repository.setQuizIdAndPassword(quizCode, password, quiz.getId());
+            created++;
+            report.append("✓ ").append(name).append(": ").append(quiz.getQuestions().size())
+                    .append(" câu");
+            if (!duplicates.isEmpty()) {
+                report.append(" (bỏ qua ").append(duplicates.size()).append(" câu trùng)");
             }
+            report.append(" — mã ").append(quizCode).append(", mật khẩu ").append(password).append('\n');
+        }
+        repository.commitBatch();
 
-            // Show review screen
-            showReviewScreen();
-            
-            Toast.makeText(this, "Đã import " + imported.size() + " câu hỏi", Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, "Không đọc được dữ liệu câu hỏi. Vui lòng kiểm tra định dạng file.", Toast.LENGTH_LONG).show();
+        int quizCount = created;
+        new AlertDialog.Builder(this)
+                .setTitle("Đã tạo " + quizCount + "/" + results.size() + " quiz")
+                .setMessage(report.toString().trim())
+                .setCancelable(false)
+                .setPositiveButton("OK", (dialog, which) -> {
+                    if (quizCount > 0) finish();
+                })
+                .show();
+    }
+
+    private static String describeFailure(BatchImportJob.FileResult result) {
+        switch (result.getStatus()) {
+            case NO_QUESTIONS:
+                return "không tìm thấy câu hỏi";
+            case UNSUPPORTED:
+                return "định dạng file không hỗ trợ";
+            case TOO_LARGE:
+                return "file ZIP quá lớn hoặc có quá nhiều file";
+            default:
+                return result.getFailureReason() != null
+                        ? "không đọc được file (" + result.getFailureReason() + ")"
+                        : "không đọc được file";
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (importJob != null) importJob.cancel();
+        if (batchImportJob != null) batchImportJob.cancel();
+    }
+
     private void showReviewScreen() {
         // Hide form, show review screen
         binding.cardForm.setVisibility(View.GONE);
@@ -449,13 +636,16 @@ public class QuizBuilderActivity extends AppCompatActivity implements QuestionSu
     }
 
     private void saveQuiz() {
-        if (repository.getQuizById(currentQuiz.getId()) == null) {
+        // Quiz, mã quiz và danh mục được ghi xuống đĩa trong một lần
+        repository.beginBatch();
+        if (!repository.containsQuiz(currentQuiz.getId())) {
             repository.addQuiz(currentQuiz);
         } else {
             repository.updateQuiz(currentQuiz);
         }
         // Save Quiz ID and Password mapping
         repository.setQuizIdAndPassword(generatedQuizId, generatedPassword, currentQuiz.getId());
+        repository.commitBatch();
         showQuizCreatedScreen();
     }
 
@@ -472,7 +662,19 @@ public class QuizBuilderActivity extends AppCompatActivity implements QuestionSu
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == 100 && resultCode == RESULT_OK && data != null) {
+            ClipData clipData = data.getClipData();
+            if (clipData != null && clipData.getItemCount() > 1) {
+                List<Uri> uris = new ArrayList<>();
+                for (int i = 0; i < clipData.getItemCount(); i++) {
+                    uris.add(clipData.getItemAt(i).getUri());
+                }
+                handleBatchImport(uris);
+                return;
+            }
             Uri uri = data.getData();
+            if (uri == null && clipData != null && clipData.getItemCount() == 1) {
+                uri = clipData.getItemAt(0).getUri();
+            }
             if (uri != null) {
                 handleImport(uri);
             }
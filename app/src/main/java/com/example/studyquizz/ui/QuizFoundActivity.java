@@ -24,7 +24,6 @@ public class QuizFoundActivity extends AppCompatActivity {
         binding = ActivityQuizFoundBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        repository = QuizRepository.getInstance(this);
         String quizId = getIntent().getStringExtra(EXTRA_QUIZ_ID);
         
         if (quizId == null) {
@@ -33,14 +32,20 @@ public class QuizFoundActivity extends AppCompatActivity {
             return;
         }
 
-        quiz = repository.getQuizById(quizId);
-        if (quiz == null) {
-            Toast.makeText(this, "Không tìm thấy quiz", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
-        setupViews();
+        QuizRepository.getInstanceAsync(this, loadedRepository -> {
+            if (isFinishing() || isDestroyed()) return;
+            repository = loadedRepository;
+            repository.loadQuizAsync(quizId, loaded -> {
+                if (isFinishing() || isDestroyed()) return;
+                quiz = loaded;
+                if (quiz == null) {
+                    Toast.makeText(this, "Không tìm thấy quiz", Toast.LENGTH_SHORT).show();
+                    finish();
+                    return;
+                }
+                setupViews();
+            });
+        });
     }
 
     private void setupViews() {
@@ -21,6 +21,7 @@ import com.example.studyquizz.model.QuizResult;
 import com.example.studyquizz.ui.QuizResultActivity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
@@ -34,11 +35,20 @@ public class QuizPlayActivity extends AppCompatActivity {
     private Quiz quiz;
     private String mode = MODE_EXAM;
     private int position = 0;
-    private List<Integer> answers;
+    private byte[] answers; // Chỉ số đáp án đã chọn, -1 = chưa trả lời
     private CountDownTimer timer;
     private long timeLeft;
     private QuizRepository repository;
     private long startTime; // Thời gian bắt đầu làm quiz
+    // Answer rows created so far, reused for every question
+    private final List<AnswerRow> answerRows = new ArrayList<>();
+    // Resolved once; the answer rows and progress segments are recolored on every tap
+    private int whiteColor;
+    private int textDarkColor;
+    private int selectedColor;
+    private int redColor;
+    private int greenColor;
+    private int purpleColor;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -46,20 +56,32 @@ public class QuizPlayActivity extends AppCompatActivity {
         binding = ActivityQuizPlayBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        repository = QuizRepository.getInstance(this);
+        whiteColor = getResources().getColor(R.color.white);
+        textDarkColor = getResources().getColor(R.color.text_dark);
+        selectedColor = getResources().getColor(R.color.join_quiz_blue);
+        redColor = getResources().getColor(android.R.color.holo_red_dark);
+        greenColor = getResources().getColor(R.color.biology_green);
+        purpleColor = getResources().getColor(R.color.join_quiz_purple); // #9B59B6
         String quizId = getIntent().getStringExtra(EXTRA_QUIZ_ID);
         mode = getIntent().getStringExtra(EXTRA_MODE);
-        quiz = repository.getQuizById(quizId);
+        if (mode == null) mode = MODE_EXAM;
+        QuizRepository.getInstanceAsync(this, loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            repository = loaded;
+            repository.loadQuizAsync(quizId, this::onQuizLoaded);
+        });
+    }
+
+    private void onQuizLoaded(Quiz loaded) {
+        if (isFinishing() || isDestroyed()) return;
+        quiz = loaded;
         if (quiz == null) {
             Toast.makeText(this, "Không tìm thấy quiz", Toast.LENGTH_SHORT).show();
             finish();
             return;
         }
-        if (mode == null) mode = MODE_EXAM;
-        answers = new ArrayList<>();
-        for (int i = 0; i < quiz.getQuestions().size(); i++) {
-            answers.add(-1);
-        }
+        answers = new byte[quiz.getQuestions().size()];
+        Arrays.fill(answers, (byte) QuizResult.NO_ANSWER);
 
         setupControls();
         setupProgressIndicator();
@@ -223,11 +245,22 @@ public class QuizPlayActivity extends AppCompatActivity {
         binding.txtQuestionTitle.setText("Question " + (position + 1));
         binding.txtQuestionContent.setText(question.getContent());
         
-        // Clear and rebuild answer options
-        binding.containerAnswers.removeAllViews();
-        for (int i = 0; i < question.getOptions().size(); i++) {
-            View answerView = createAnswerView(question.getOptions().get(i), i, question, position);
-            binding.containerAnswers.addView(answerView);
+        // Reuse answer rows; rows beyond this question's options are only hidden
+        int optionCount = question.getOptions().size();
+        while (answerRows.size() < optionCount) {
+            AnswerRow row = createAnswerRow(answerRows.size());
+            answerRows.add(row);
+            binding.containerAnswers.addView(row.container);
+        }
+        for (int i = 0; i < answerRows.size(); i++) {
+            AnswerRow row = answerRows.get(i);
+            if (i < optionCount) {
+                row.text.setText(question.getOptions().get(i));
+                row.container.setVisibility(View.VISIBLE);
+                bindAnswerState(row, i, question);
+            } else {
+                row.container.setVisibility(View.GONE);
+            }
         }
         
         // Update progress indicator
@@ -241,7 +274,9 @@ public class QuizPlayActivity extends AppCompatActivity {
         }
     }
     
-    private View createAnswerView(String optionText, int index, Question question, int questionIndex) {
+    // Tạo một lần cho mỗi vị trí đáp án, dùng lại cho mọi câu hỏi
+    private AnswerRow createAnswerRow(int index) {
+        float density = getResources().getDisplayMetrics().density;
         LinearLayout container = new LinearLayout(this);
         container.setOrientation(LinearLayout.HORIZONTAL);
         container.setGravity(android.view.Gravity.CENTER_VERTICAL);
@@ -250,19 +285,12 @@ public class QuizPlayActivity extends AppCompatActivity {
             LinearLayout.LayoutParams.MATCH_PARENT,
             LinearLayout.LayoutParams.WRAP_CONTENT
         );
-        params.setMargins(0, 0, 0, (int) (getResources().getDisplayMetrics().density * 12));
+        params.setMargins(0, 0, 0, (int) (density * 12));
         container.setLayoutParams(params);
-        container.setPadding(
-            (int) (getResources().getDisplayMetrics().density * 16),
-            (int) (getResources().getDisplayMetrics().density * 16),
-            (int) (getResources().getDisplayMetrics().density * 16),
-            (int) (getResources().getDisplayMetrics().density * 16)
-        );
-        container.setBackgroundResource(R.drawable.spinner_background);
+        int padding = (int) (density * 16);
+        container.setPadding(padding, padding, padding, padding);
         
         android.widget.TextView textView = new android.widget.TextView(this);
-        textView.setText(optionText);
-        textView.setTextColor(getResources().getColor(R.color.text_dark));
         textView.setTextSize(16);
         textView.setLayoutParams(new LinearLayout.LayoutParams(
             0,
@@ -271,61 +299,51 @@ public class QuizPlayActivity extends AppCompatActivity {
         ));
         container.addView(textView);
         
-        // Check if this is selected
-        boolean isSelected = answers.get(questionIndex) == index;
-        if (isSelected) {
-            // In study mode, show green for correct, red for wrong
-            if (MODE_STUDY.equals(mode)) {
-                boolean isCorrect = index == question.getCorrectIndex();
-                if (isCorrect) {
-                    container.setBackgroundColor(getResources().getColor(R.color.join_quiz_blue));
-                    textView.setTextColor(getResources().getColor(R.color.white));
-                    
-                    // Add checkmark icon
-                    android.widget.ImageView checkIcon = new android.widget.ImageView(this);
-                    checkIcon.setImageResource(R.drawable.ic_checkmark_white);
-                    checkIcon.setLayoutParams(new LinearLayout.LayoutParams(
-                        (int) (getResources().getDisplayMetrics().density * 24),
-                        (int) (getResources().getDisplayMetrics().density * 24)
-                    ));
-                    container.addView(checkIcon);
-                } else {
-                    container.setBackgroundColor(getResources().getColor(android.R.color.holo_red_dark));
-                    textView.setTextColor(getResources().getColor(R.color.white));
-                    
-                    // Add X icon
-                    android.widget.ImageView xIcon = new android.widget.ImageView(this);
-                    xIcon.setImageResource(android.R.drawable.ic_menu_close_clear_cancel);
-                    xIcon.setColorFilter(getResources().getColor(R.color.white));
-                    xIcon.setLayoutParams(new LinearLayout.LayoutParams(
-                        (int) (getResources().getDisplayMetrics().density * 24),
-                        (int) (getResources().getDisplayMetrics().density * 24)
-                    ));
-                    container.addView(xIcon);
-                }
-            } else {
-                // Exam mode - just show selected
-                container.setBackgroundColor(getResources().getColor(R.color.join_quiz_blue));
-                textView.setTextColor(getResources().getColor(R.color.white));
-                
-                // Add checkmark icon
-                android.widget.ImageView checkIcon = new android.widget.ImageView(this);
-                checkIcon.setImageResource(R.drawable.ic_checkmark_white);
-                checkIcon.setLayoutParams(new LinearLayout.LayoutParams(
-                    (int) (getResources().getDisplayMetrics().density * 24),
-                    (int) (getResources().getDisplayMetrics().density * 24)
-                ));
-                container.addView(checkIcon);
-            }
-        }
+        android.widget.ImageView icon = new android.widget.ImageView(this);
+        icon.setLayoutParams(new LinearLayout.LayoutParams(
+            (int) (density * 24),
+            (int) (density * 24)
+        ));
+        icon.setVisibility(View.GONE);
+        container.addView(icon);
         
+        AnswerRow row = new AnswerRow(container, textView, icon,
+                getDrawable(R.drawable.spinner_background), new android.graphics.drawable.ColorDrawable());
         container.setOnClickListener(v -> {
-            answers.set(questionIndex, index);
-            // In study mode, no instant feedback toast - just update UI
-            renderQuestion(); // Refresh to show selection
+            Question question = quiz.getQuestions().get(position);
+            int previous = answers[position];
+            answers[position] = (byte) index;
+            // Only the old and new selection change; no views are rebuilt
+            if (previous >= 0 && previous < answerRows.size() && previous != index) {
+                bindAnswerState(answerRows.get(previous), previous, question);
+            }
+            bindAnswerState(row, index, question);
+            updateProgressSegment(position);
         });
-        
-        return container;
+        return row;
+    }
+    
+    private void bindAnswerState(AnswerRow row, int index, Question question) {
+        if (answers[position] != index) {
+            row.container.setBackground(row.normalBackground);
+            row.text.setTextColor(textDarkColor);
+            row.icon.setVisibility(View.GONE);
+            return;
+        }
+        row.container.setBackground(row.selectedBackground);
+        row.text.setTextColor(whiteColor);
+        row.icon.setVisibility(View.VISIBLE);
+        // In study mode, show red with an X for a wrong answer
+        if (MODE_STUDY.equals(mode) && index != question.getCorrectIndex()) {
+            row.selectedBackground.setColor(redColor);
+            row.icon.setImageResource(android.R.drawable.ic_menu_close_clear_cancel);
+            row.icon.setColorFilter(whiteColor);
+        } else {
+            // Correct in study mode, or just selected in exam mode
+            row.selectedBackground.setColor(selectedColor);
+            row.icon.setImageResource(R.drawable.ic_checkmark_white);
+            row.icon.clearColorFilter();
+        }
     }
     
     /**
@@ -340,47 +358,39 @@ public class QuizPlayActivity extends AppCompatActivity {
      */
     private void updateProgressIndicator() {
         int totalQuestions = quiz.getQuestions().size();
-        int purpleColor = getResources().getColor(R.color.join_quiz_purple); // #9B59B6
-        int greenColor = getResources().getColor(R.color.biology_green); // Green for correct
-        int redColor = android.R.color.holo_red_dark; // Red for wrong
-        
         for (int i = 0; i < totalQuestions; i++) {
-            View segment = binding.progressIndicator.getChildAt(i);
-            if (segment != null) {
-                android.graphics.drawable.GradientDrawable drawable = 
-                    (android.graphics.drawable.GradientDrawable) segment.getBackground();
+            updateProgressSegment(i);
+        }
+    }
+
+    private void updateProgressSegment(int i) {
+        View segment = binding.progressIndicator.getChildAt(i);
+        if (segment == null) return;
+        android.graphics.drawable.GradientDrawable drawable = 
+            (android.graphics.drawable.GradientDrawable) segment.getBackground();
+        if (drawable == null) return;
+        
+        // Check if this question has been answered
+        boolean hasAnswer = answers[i] != QuizResult.NO_ANSWER;
+        
+        if (hasAnswer) {
+            if (MODE_STUDY.equals(mode)) {
+                // Study mode: check if answer is correct
+                Question question = quiz.getQuestions().get(i);
+                int selectedAnswer = answers[i];
+                boolean isCorrect = selectedAnswer == question.getCorrectIndex();
                 
-                if (drawable != null) {
-                    // Check if this question has been answered
-                    boolean hasAnswer = answers.get(i) != -1;
-                    
-                    if (hasAnswer) {
-                        if (MODE_STUDY.equals(mode)) {
-                            // Study mode: check if answer is correct
-                            Question question = quiz.getQuestions().get(i);
-                            int selectedAnswer = answers.get(i);
-                            boolean isCorrect = selectedAnswer == question.getCorrectIndex();
-                            
-                            if (isCorrect) {
-                                // Correct answer: Green color
-                                drawable.setColor(greenColor);
-                            } else {
-                                // Wrong answer: Red color
-                                drawable.setColor(getResources().getColor(redColor));
-                            }
-                        } else {
-                            // Exam mode: Purple color
-                            drawable.setColor(purpleColor);
-                        }
-                        drawable.setAlpha(255);
-                    } else {
-                        // Not answered: White color
-                        drawable.setColor(getResources().getColor(R.color.white));
-                        drawable.setAlpha(255);
-                    }
-                }
+                // Correct answer: Green color, wrong answer: Red color
+                drawable.setColor(isCorrect ? greenColor : redColor);
+            } else {
+                // Exam mode: Purple color
+                drawable.setColor(purpleColor);
             }
+        } else {
+            // Not answered: White color
+            drawable.setColor(whiteColor);
         }
+        drawable.setAlpha(255);
     }
 
     private void showInstantFeedback(Question question, int checkedId) {
@@ -430,8 +440,8 @@ public class QuizPlayActivity extends AppCompatActivity {
         int answered = 0;
         for (int i = 0; i < quiz.getQuestions().size(); i++) {
             Question q = quiz.getQuestions().get(i);
-            int ans = answers.get(i);
-            if (ans != -1) {
+            int ans = answers[i];
+            if (ans != QuizResult.NO_ANSWER) {
                 answered++;
                 if (ans == q.getCorrectIndex()) correct++;
             }
@@ -447,7 +457,7 @@ public class QuizPlayActivity extends AppCompatActivity {
         long endTime = System.currentTimeMillis();
         long duration = endTime - startTime;
         
-        QuizResult result = new QuizResult(quiz.getId(), quiz.getTitle(), correct, wrong, total, score, completion, endTime, duration, new ArrayList<>(answers));
+        QuizResult result = new QuizResult(quiz.getId(), quiz.getTitle(), correct, wrong, total, score, completion, endTime, duration, answers.clone());
         repository.saveResult(result);
 
         // Navigate to result screen
@@ -465,5 +475,23 @@ public class QuizPlayActivity extends AppCompatActivity {
         super.onDestroy();
         if (timer != null) timer.cancel();
     }
-}
 
+    private static class AnswerRow {
+        final LinearLayout container;
+        final android.widget.TextView text;
+        final android.widget.ImageView icon;
+        // Swapped rather than recreated when the selection changes
+        final android.graphics.drawable.Drawable normalBackground;
+        final android.graphics.drawable.ColorDrawable selectedBackground;
+
+        AnswerRow(LinearLayout container, android.widget.TextView text, android.widget.ImageView icon,
+                  android.graphics.drawable.Drawable normalBackground,
+                  android.graphics.drawable.ColorDrawable selectedBackground) {
+            this.container = container;
+            this.text = text;
+            this.icon = icon;
+            this.normalBackground = normalBackground;
+            this.selectedBackground = selectedBackground;
+        }
+    }
+}
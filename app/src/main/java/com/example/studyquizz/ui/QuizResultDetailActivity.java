@@ -58,8 +58,6 @@ public class QuizResultDetailActivity extends AppCompatActivity {
             return insets;
         });
 
-        repository = QuizRepository.getInstance(this);
-        
         // Get quiz ID and timestamp from intent
         String quizId = getIntent().getStringExtra(EXTRA_QUIZ_ID);
         long timestamp = getIntent().getLongExtra(EXTRA_TIMESTAMP, -1);
@@ -69,6 +67,14 @@ public class QuizResultDetailActivity extends AppCompatActivity {
             return;
         }
         
+        QuizRepository.getInstanceAsync(this, loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            repository = loaded;
+            showResult(quizId, timestamp);
+        });
+    }
+
+    private void showResult(String quizId, long timestamp) {
         // Find the specific result from history
         List<QuizResult> results = repository.getHistoryForQuiz(quizId);
         result = null;
@@ -85,14 +91,16 @@ public class QuizResultDetailActivity extends AppCompatActivity {
         }
         
         // Get quiz data
-        quiz = repository.getQuizById(result.getQuizId());
-        if (quiz == null) {
-            finish();
-            return;
-        }
-        
-        setupViews();
-        loadData();
+        repository.loadQuizAsync(result.getQuizId(), loaded -> {
+            if (isFinishing() || isDestroyed()) return;
+            quiz = loaded;
+            if (quiz == null) {
+                finish();
+                return;
+            }
+            setupViews();
+            loadData();
+        });
     }
 
     private void setupViews() {
@@ -151,10 +159,8 @@ public class QuizResultDetailActivity extends AppCompatActivity {
     private void loadData() {
         // Prepare question data with user answers
         List<QuestionDetailAdapter.QuestionDetailItem> items = new ArrayList<>();
-        List<Integer> userAnswers = result.getUserAnswers();
-        
         for (int i = 0; i < quiz.getQuestions().size(); i++) {
-            int userAnswer = i < userAnswers.size() ? userAnswers.get(i) : -1;
+            int userAnswer = result.getAnswerAt(i);
             items.add(new QuestionDetailAdapter.QuestionDetailItem(
                 quiz.getQuestions().get(i),
                 userAnswer,
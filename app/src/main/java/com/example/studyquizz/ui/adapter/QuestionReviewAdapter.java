@@ -37,6 +37,13 @@ public class QuestionReviewAdapter extends RecyclerView.Adapter<QuestionReviewAd
         notifyDataSetChanged();
     }
 
+    /** Adds questions at the end, e.g. while an import is still running. */
+    public void append(List<Question> questions) {
+        int start = items.size();
+        items.addAll(questions);
+        notifyItemRangeInserted(start, questions.size());
+    }
+
     @NonNull
     @Override
     public QuestionReviewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
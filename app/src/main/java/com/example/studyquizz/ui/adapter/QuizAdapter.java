@@ -74,20 +74,19 @@ public class QuizAdapter extends RecyclerView.Adapter<QuizAdapter.QuizHolder> {
             binding.txtTitle.setText(quiz.getTitle());
             
             // Set category icon based on category
-            String category = quiz.getCustomCategory() != null && !quiz.getCustomCategory().isEmpty()
-                    ? quiz.getCustomCategory() : quiz.getCategory();
+            String category = quiz.getEffectiveCategory();
             setCategoryIcon(category);
             
             // Set text color based on category
             setCategoryTextColor(category);
             
             // Set number of questions
-            int questionCount = quiz.getQuestions() != null ? quiz.getQuestions().size() : 0;
+            int questionCount = quiz.getQuestionCount();
             
             // Set number of plays
             int playCount = 0;
             if (repository != null) {
-                playCount = repository.getHistoryForQuiz(quiz.getId()).size();
+                playCount = repository.getQuizStats(quiz.getId()).getPlayCount();
             }
             
             // Display info: "X câu hỏi - Y lượt chơi"
@@ -0,0 +1,316 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.studyquizz.model.Question;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many documents at once, one quiz's worth of questions per file. A ZIP is
+ * opened and every importable document inside counts as a file of its own. Files are parsed a
+ * few at a time off the main thread, and the per-file results come back on the main
+ * thread in the order the files were given.
+ */
+public class BatchImportJob {
+    public enum Status {
+        OK,
+        NO_QUESTIONS,
+        FAILED,
+        UNSUPPORTED,
+        /** A ZIP with more entries or more uncompressed data than an import may unpack. */
+        TOO_LARGE
+    }
+
+    public static class FileResult {
+        private final String name;
+        private final Status status;
+        private final List<Question> questions;
+        private final String failureReason;
+
+        FileResult(String name, Status status, List<Question> questions) {
+            this(name, status, questions, null);
+        }
+
+        FileResult(String name, Status status, List<Question> questions, String failureReason) {
+            this.name = name;
+            this.status = status;
+            this.questions = questions;
+            this.failureReason = failureReason;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public List<Question> getQuestions() {
+            return questions;
+        }
+
+        /** Why a {@link Status#FAILED} file could not be read, when the parser said; otherwise null. */
+        public String getFailureReason() {
+            return failureReason;
+        }
+    }
+
+    public interface Callback {
+        void onProgress(int filesDone, int fileCount);
+
+        void onFinished(List<FileResult> results);
+    }
+
+    private static final String TAG = "BatchImportJob";
+    // Mỗi file đã tự tốn nhiều CPU/bộ nhớ, nên chỉ đọc vài file cùng lúc
+    private static final int MAX_PARALLEL_FILES = 3;
+    // Giới hạn cho mỗi ZIP, để một file nén kiểu "zip bomb" không làm đầy bộ nhớ/cache
+    private static final int MAX_ZIP_ENTRIES = 500;
+    private static final long MAX_ZIP_BYTES = 200L * 1024 * 1024;
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    private static final ExecutorService COORDINATOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "quiz-batch-import");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final Callback callback;
+    private volatile boolean cancelled;
+
+    private BatchImportJob(Callback callback) {
+        this.callback = callback;
+    }
+
+    public static BatchImportJob start(Context context, List<Uri> uris, Callback callback) {
+        BatchImportJob job = new BatchImportJob(callback);
+        Context appContext = context.getApplicationContext();
+        List<Uri> copy = new ArrayList<>(uris);
+        COORDINATOR.execute(() -> job.run(appContext, copy));
+        return job;
+    }
+
+    public static boolean isZip(String mime, String name) {
+        return (mime != null && mime.contains("zip"))
+                || (name != null && name.toLowerCase(Locale.ROOT).endsWith(".zip"));
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void run(Context context, List<Uri> uris) {
+        List<Source> sources = new ArrayList<>();
+        List<File> extracted = new ArrayList<>();
+        try {
+            for (Uri uri : uris) {
+                if (cancelled) return;
+                String name = ImportJob.displayName(context, uri);
+                String mime = context.getContentResolver().getType(uri);
+                if (isZip(mime, name)) {
+                    expandZip(context, uri, name, sources, extracted);
+                } else {
+                    sources.add(new Source(name, uri, QuestionSources.forFile(mime, name)));
+                }
+            }
+            List<FileResult> results = parseAll(context, sources);
+            if (results != null) {
+                post(() -> callback.onFinished(results));
+            }
+        } finally {
+            for (File file : extracted) {
+                if (!file.delete()) file.deleteOnExit();
+            }
+        }
+    }
+
+    private List<FileResult> parseAll(Context context, List<Source> sources) {
+        int workers = Math.max(1, Math.min(MAX_PARALLEL_FILES, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "quiz-batch-parse");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        AtomicInteger done = new AtomicInteger();
+        int total = sources.size();
+        post(() -> callback.onProgress(0, total));
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>(total);
+            for (Source source : sources) {
+                futures.add(pool.submit(() -> {
+                    FileResult result = parseOne(context, source);
+                    int finished = done.incrementAndGet();
+                    post(() -> callback.onProgress(finished, total));
+                    return result;
+                }));
+            }
+            List<FileResult> results = new ArrayList<>(total);
+            for (Future<FileResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    Log.e(TAG, "Batch import task failed", e.getCause());
+                    results.add(new FileResult(sources.get(results.size()).name, Status.FAILED, Collections.emptyList()));
+                }
+            }
+            return cancelled ? null : results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private FileResult parseOne(Context context, Source source) {
+        if (source.failure != null) {
+            return new FileResult(source.name, source.failure, Collections.emptyList());
+        }
+        List<Question> questions = new ArrayList<>();
+        IOException[] failure = new IOException[1];
+        // Các file đã được đọc song song, nên PDF trích tuần tự để không thêm luồng
+        QuestionSource questionSource = source.source == QuestionSources.PDF ? QuestionSources.PDF_SEQUENTIAL : source.source;
+        boolean complete = ImportJob.parse(context, source.uri, questionSource, new ImportHelper.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+            }
+
+            @Override
+            public void onQuestion(Question question) {
+                questions.add(question);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public void onFailed(IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (!complete) {
+            String reason = failure[0] != null ? ImportJob.describeFailure(failure[0]) : null;
+            return new FileResult(source.name, Status.FAILED, questions, reason);
+        }
+        if (questions.isEmpty()) return new FileResult(source.name, Status.NO_QUESTIONS, questions);
+        return new FileResult(source.name, Status.OK, questions);
+    }
+
+    // Giải nén từng file nhập được trong ZIP ra file tạm trong cache để đọc như file thường
+    private void expandZip(Context context, Uri uri, String zipName, List<Source> sources, List<File> extracted) {
+        int firstSource = sources.size();
+        int firstFile = extracted.size();
+        try (InputStream raw = context.getContentResolver().openInputStream(uri)) {
+            if (raw == null) {
+                sources.add(Source.failed(zipName, Status.FAILED));
+                return;
+            }
+            ZipInputStream zip = new ZipInputStream(new BufferedInputStream(raw));
+            ZipEntry entry;
+            int entryCount = 0;
+            long totalBytes = 0;
+            while ((entry = zip.getNextEntry()) != null && !cancelled) {
+                if (++entryCount > MAX_ZIP_ENTRIES) {
+                    throw new ZipLimitException("more than " + MAX_ZIP_ENTRIES + " entries");
+                }
+                String entryName = entry.getName();
+                int slash = entryName.lastIndexOf('/');
+                String name = entryName.substring(slash + 1);
+                if (entry.isDirectory() || name.isEmpty() || name.startsWith(".") || entryName.startsWith("__MACOSX/")) {
+                    continue;
+                }
+                QuestionSource source = QuestionSources.find(null, name);
+                if (source == null) {
+                    sources.add(Source.failed(name, Status.UNSUPPORTED));
+                    continue;
+                }
+                File file = File.createTempFile("batch", "." + QuestionSources.extensionOf(name), context.getCacheDir());
+                extracted.add(file);
+                try (OutputStream out = new FileOutputStream(file)) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = zip.read(buffer)) != -1) {
+                        // Đếm số byte thực sự giải nén, không tin kích thước khai trong ZIP
+                        totalBytes += read;
+                        if (totalBytes > MAX_ZIP_BYTES) {
+                            throw new ZipLimitException("more than " + MAX_ZIP_BYTES + " bytes uncompressed");
+                        }
+                        out.write(buffer, 0, read);
+                    }
+                }
+                sources.add(new Source(name, Uri.fromFile(file), source));
+            }
+        } catch (ZipLimitException e) {
+            Log.w(TAG, "ZIP " + zipName + " rejected: " + e.getMessage());
+            // Bỏ cả ZIP: không nhập dở một phần các file đã giải nén
+            List<File> partial = extracted.subList(firstFile, extracted.size());
+            for (File file : partial) {
+                if (!file.delete()) file.deleteOnExit();
+            }
+            partial.clear();
+            sources.subList(firstSource, sources.size()).clear();
+            sources.add(Source.failed(zipName, Status.TOO_LARGE));
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot read ZIP " + zipName, e);
+            sources.add(Source.failed(zipName, Status.FAILED));
+        }
+    }
+
+    private void post(Runnable delivery) {
+        MAIN.post(() -> {
+            if (!cancelled) delivery.run();
+        });
+    }
+
+    private static class ZipLimitException extends IOException {
+        ZipLimitException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Source {
+        final String name;
+        final Uri uri;
+        final QuestionSource source;
+        // Đã biết là không đọc được trước khi parse (ZIP hỏng, định dạng không hỗ trợ)
+        final Status failure;
+
+        Source(String name, Uri uri, QuestionSource source) {
+            this(name, uri, source, null);
+        }
+
+        private Source(String name, Uri uri, QuestionSource source, Status failure) {
+            this.name = name;
+            this.uri = uri;
+            this.source = source;
+            this.failure = failure;
+        }
+
+        static Source failed(String name, Status failure) {
+            return new Source(name, null, null, failure);
+        }
+    }
+}
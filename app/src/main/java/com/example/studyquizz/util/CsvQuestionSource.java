@@ -0,0 +1,166 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import com.example.studyquizz.model.Question;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One question per row: the question, then its options. A first row starting with
+ * "question" or "câu hỏi" is a header; when it also names a column "answer",
+ * "correct" or "đáp án", that column holds the correct answer as a letter, a 1-based
+ * number or the option's text. Otherwise every cell after the question is an option
+ * and the correct one can be marked with "*" or "[x]" as in documents. Fields follow
+ * RFC 4180 quoting, so they may hold the delimiter, quotes or line breaks.
+ */
+class CsvQuestionSource implements QuestionSource {
+    private static final List<String> ANSWER_HEADERS =
+            Arrays.asList("answer", "correct", "correct answer", "đáp án", "đáp án đúng");
+
+    private final String name;
+    private final char delimiter;
+
+    CsvQuestionSource(String name, char delimiter) {
+        this.name = name;
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void parse(Context context, Uri uri, ImportHelper.Listener listener) {
+        try (TextInput input = TextInput.open(context, uri)) {
+            if (input == null) return;
+            RowReader rows = new RowReader(input.reader, delimiter);
+            List<String> row;
+            int rowNumber = 0;
+            int answerColumn = -1;
+            while ((row = rows.next()) != null) {
+                rowNumber++;
+                if (rowNumber % ImportHelper.PROGRESS_LINES == 0) {
+                    if (listener.isCancelled()) return;
+                    input.reportProgress(listener);
+                }
+                if (rowNumber == 1 && isHeader(row)) {
+                    // Decided once from the header, since a numeric last option looks like an answer
+                    answerColumn = answerColumn(row);
+                    continue;
+                }
+                Question question = toQuestion(row, answerColumn);
+                if (question != null) {
+                    listener.onQuestion(question);
+                }
+            }
+            input.reportFinished(listener);
+        } catch (IOException e) {
+            Log.e("CsvQuestionSource", "CSV parse error", e);
+            listener.onFailed(e);
+        }
+    }
+
+    private static boolean isHeader(List<String> row) {
+        String first = row.get(0).trim().toLowerCase(Locale.ROOT);
+        return first.equals("question") || first.equals("câu hỏi");
+    }
+
+    static int answerColumn(List<String> header) {
+        for (int i = 1; i < header.size(); i++) {
+            if (ANSWER_HEADERS.contains(header.get(i).trim().toLowerCase(Locale.ROOT))) return i;
+        }
+        return -1;
+    }
+
+    static Question toQuestion(List<String> row, int answerColumn) {
+        String content = row.get(0).trim();
+        List<String> options = new ArrayList<>(row.size());
+        int correctIndex = -1;
+        for (int i = 1; i < row.size(); i++) {
+            if (i == answerColumn) continue;
+            String cell = row.get(i).trim();
+            if (cell.isEmpty()) continue;
+            if (cell.contains("*") || cell.contains("[x]")) {
+                correctIndex = options.size();
+                cell = cell.replace("*", "").replace("[x]", "").trim();
+            }
+            options.add(cell);
+        }
+        if (content.isEmpty() || options.isEmpty()) return null;
+        if (answerColumn > 0 && answerColumn < row.size()) {
+            int answer = ImportHelper.resolveAnswer(row.get(answerColumn), options);
+            if (answer >= 0) correctIndex = answer;
+        }
+        return ImportHelper.buildQuestion(content, options, correctIndex);
+    }
+
+    /** Streams RFC 4180 rows; blank lines are skipped. */
+    private static class RowReader {
+        private final Reader reader;
+        private final char delimiter;
+        private final StringBuilder field = new StringBuilder();
+        private boolean ended;
+
+        RowReader(Reader reader, char delimiter) {
+            this.reader = reader;
+            this.delimiter = delimiter;
+        }
+
+        List<String> next() throws IOException {
+            while (!ended) {
+                List<String> row = readRow();
+                if (row.size() > 1 || !row.get(0).trim().isEmpty()) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        private List<String> readRow() throws IOException {
+            List<String> row = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            while (true) {
+                int c = reader.read();
+                if (c == -1) {
+                    ended = true;
+                    break;
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    // "" bên trong trường có ngoặc kép là một dấu " thật
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    row.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            row.add(field.toString());
+            return row;
+        }
+    }
+}
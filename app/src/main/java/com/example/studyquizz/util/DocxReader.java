@@ -0,0 +1,134 @@
+package com.example.studyquizz.util;
+
+import android.util.Xml;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the paragraphs of a DOCX straight from {@code word/document.xml} with a pull
+ * parser, so only the current paragraph is held in memory instead of a whole
+ * XWPFDocument. Like {@code XWPFDocument.getParagraphs()}, only body paragraphs are
+ * reported; paragraphs inside tables and text boxes are skipped.
+ */
+class DocxReader {
+    private static final String DOCUMENT_ENTRY = "word/document.xml";
+    private static final String W = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    interface Handler {
+        /** {@code runColors} holds the {@code w:color} value of each run that has one. */
+        void onParagraph(String text, List<String> runColors);
+
+        /** Progress in kilobytes of {@code document.xml} read. */
+        void onProgress(int doneKb, int totalKb);
+
+        boolean isCancelled();
+    }
+
+    /** The file opened as a ZIP but is not a readable Word document. */
+    static class FormatException extends IOException {
+        FormatException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private DocxReader() {
+    }
+
+    /** Returns false if the handler cancelled before the end of the document. */
+    static boolean read(File docx, Handler handler) throws IOException {
+        try (ZipFile zip = new ZipFile(docx)) {
+            ZipEntry entry = zip.getEntry(DOCUMENT_ENTRY);
+            if (entry == null) {
+                throw new FormatException("Not a DOCX file: missing " + DOCUMENT_ENTRY, null);
+            }
+            try (CountingInputStream in = new CountingInputStream(
+                    new BufferedInputStream(zip.getInputStream(entry)))) {
+                XmlPullParser parser = Xml.newPullParser();
+                parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+                parser.setInput(in, null);
+                int totalKb = (int) Math.max(1, entry.getSize() / 1024);
+                return readBody(parser, in, totalKb, handler);
+            } catch (XmlPullParserException e) {
+                throw new FormatException("Malformed " + DOCUMENT_ENTRY, e);
+            }
+        }
+    }
+
+    private static boolean readBody(XmlPullParser parser, CountingInputStream in, int totalKb, Handler handler)
+            throws IOException, XmlPullParserException {
+        StringBuilder text = new StringBuilder();
+        List<String> runColors = new ArrayList<>();
+        int tableDepth = 0;
+        int paragraphDepth = 0;
+        boolean inRun = false;
+        boolean inText = false;
+        for (int event = parser.next(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+            if (event == XmlPullParser.TEXT) {
+                if (inText) text.append(parser.getText());
+                continue;
+            }
+            if ((event != XmlPullParser.START_TAG && event != XmlPullParser.END_TAG) || !W.equals(parser.getNamespace())) {
+                continue;
+            }
+            String name = parser.getName();
+            boolean start = event == XmlPullParser.START_TAG;
+            if ("tbl".equals(name)) {
+                tableDepth += start ? 1 : -1;
+                continue;
+            }
+            if ("p".equals(name)) {
+                if (start) {
+                    paragraphDepth++;
+                    continue;
+                }
+                paragraphDepth--;
+                if (paragraphDepth == 0) {
+                    if (tableDepth == 0) {
+                        if (handler.isCancelled()) return false;
+                        handler.onParagraph(text.toString(), runColors);
+                        handler.onProgress((int) Math.min(totalKb, in.getCount() / 1024), totalKb);
+                    }
+                    text.setLength(0);
+                    runColors.clear();
+                }
+                continue;
+            }
+            // Chỉ lấy nội dung của đoạn văn cấp thân, không lấy đoạn lồng trong bảng/text box
+            if (paragraphDepth != 1 || tableDepth != 0) {
+                continue;
+            }
+            switch (name) {
+                case "r":
+                    inRun = start;
+                    break;
+                case "t":
+                    inText = start;
+                    break;
+                case "color":
+                    // Màu của ký hiệu cuối đoạn (w:pPr/w:rPr) không tính là màu của run
+                    String color = start && inRun ? parser.getAttributeValue(W, "val") : null;
+                    if (color != null) runColors.add(color);
+                    break;
+                case "tab":
+                    if (start && inRun) text.append('\t');
+                    break;
+                case "br":
+                case "cr":
+                    if (start && inRun) text.append('\n');
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.example.studyquizz.model.Question;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Questions parsed from a document, kept in the cache dir under the SHA-256 of the
+ * file's bytes, so importing an unchanged file again skips parsing. The key also
+ * carries the source's name and {@link ImportHelper#PARSER_VERSION}, so a parser change
+ * simply misses and old entries age out. Least recently used entries are evicted
+ * once the cache grows past {@link #MAX_BYTES}.
+ */
+class ImportCache {
+    private static final String TAG = "ImportCache";
+    private static final String DIR = "import-cache";
+    private static final long MAX_BYTES = 8L * 1024 * 1024;
+    private static final Type QUESTION_LIST_TYPE = new TypeToken<List<Question>>() {}.getType();
+    private static final Gson GSON = new Gson();
+
+    private ImportCache() {
+    }
+
+    /** Reads the whole document once to hash it; null if it cannot be read. */
+    static String keyOf(Context context, Uri uri, QuestionSource source) {
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            if (in == null) return null;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder key = new StringBuilder(source.getName()).append('-');
+            for (byte b : digest.digest()) {
+                key.append(String.format(Locale.ROOT, "%02x", b));
+            }
+            return key.append("-v").append(ImportHelper.PARSER_VERSION).toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            Log.e(TAG, "Cannot hash " + uri, e);
+            return null;
+        }
+    }
+
+    /** The cached questions with fresh ids, or null on a miss. */
+    static synchronized List<Question> get(Context context, String key) {
+        File file = entryFile(context, key);
+        if (!file.exists()) return null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new AtomicFile(file).openRead(), StandardCharsets.UTF_8))) {
+            List<Question> questions = GSON.fromJson(reader, QUESTION_LIST_TYPE);
+            if (questions == null) return null;
+            // Mỗi lần nhập là câu hỏi mới, không dùng lại id của lần nhập trước
+            for (Question question : questions) {
+                question.setId(UUID.randomUUID().toString());
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return questions;
+        } catch (IOException | JsonParseException e) {
+            Log.e(TAG, "Dropping unreadable cache entry " + key, e);
+            new AtomicFile(file).delete();
+            return null;
+        }
+    }
+
+    static synchronized void put(Context context, String key, List<Question> questions) {
+        AtomicFile file = new AtomicFile(entryFile(context, key));
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            GSON.toJson(questions, QUESTION_LIST_TYPE, writer);
+            writer.flush();
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            if (stream != null) file.failWrite(stream);
+            Log.e(TAG, "Cannot cache import " + key, e);
+            return;
+        }
+        evict(new File(context.getCacheDir(), DIR));
+    }
+
+    private static void evict(File dir) {
+        File[] entries = dir.listFiles();
+        if (entries == null) return;
+        long total = 0;
+        for (File entry : entries) {
+            total += entry.length();
+        }
+        if (total <= MAX_BYTES) return;
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        for (File entry : entries) {
+            if (total <= MAX_BYTES) break;
+            long length = entry.length();
+            if (entry.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    private static File entryFile(Context context, String key) {
+        File dir = new File(context.getCacheDir(), DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "Cannot create " + dir);
+        }
+        return new File(dir, key + ".json");
+    }
+}
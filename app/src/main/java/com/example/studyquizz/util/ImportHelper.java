@@ -2,138 +2,467 @@ package com.example.studyquizz.util;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.example.studyquizz.model.Question;
 import com.example.studyquizz.model.QuestionType;
-import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import com.tom_roush.pdfbox.text.PDFTextStripper;
 
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
-
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ImportHelper {
+    // Tăng khi đổi cách parse, để kết quả cũ trong ImportCache không còn được dùng
+    static final int PARSER_VERSION = 1;
+    // Các định dạng văn bản kiểm tra hủy/báo tiến độ sau mỗi chừng này dòng
+    static final int PROGRESS_LINES = 512;
+
+    // Chế độ song song chỉ đáng công mở thêm PDDocument khi file đủ dài
+    private static final int PARALLEL_MIN_PAGES = 32;
+    private static final int PAGES_PER_CHUNK = 8;
+    private static final int MAX_PDF_WORKERS = 4;
+
     private ImportHelper() {
     }
 
+    /**
+     * Receives an import as it goes: progress in pages (PDF) or kilobytes of text (DOCX)
+     * and each question as soon as it is complete. Called on the parsing thread.
+     */
+    public interface Listener {
+        void onProgress(int done, int total);
+
+        void onQuestion(Question question);
+
+        /** Checked between pages/paragraphs; parsing stops early when it returns true. */
+        default boolean isCancelled() {
+            return false;
+        }
+
+        /** The document could not be read to the end; questions so far were still delivered. */
+        default void onFailed(IOException e) {
+        }
+    }
+
     public static List<Question> parseFromDocx(Context context, Uri uri) {
         List<Question> questions = new ArrayList<>();
-        try (InputStream inputStream = context.getContentResolver().openInputStream(uri)) {
-            if (inputStream == null) return questions;
-            XWPFDocument document = new XWPFDocument(inputStream);
-            List<String> lines = new ArrayList<>();
-            for (XWPFParagraph paragraph : document.getParagraphs()) {
-                String text = paragraph.getText();
-                if (text != null && !text.trim().isEmpty()) {
+        parseFromDocx(context, uri, collectInto(questions));
+        return questions;
+    }
+
+    public static void parseFromDocx(Context context, Uri uri, Listener listener) {
+        File copy = null;
+        try {
+            // ZipFile cần truy cập ngẫu nhiên để tìm word/document.xml, nên đọc từ bản sao
+            copy = copyToCache(context, uri, ".docx");
+            if (copy == null) return;
+            LineParser parser = new LineParser(listener);
+            boolean completed = DocxReader.read(copy, new DocxReader.Handler() {
+                @Override
+                public void onParagraph(String text, List<String> runColors) {
+                    if (text.trim().isEmpty()) return;
                     String trimmed = text.trim();
 
                     // Nếu một đáp án trong file DOCX được tô đỏ, coi đó là đáp án đúng
                     // bằng cách chèn dấu "*" để tái sử dụng logic parse hiện tại.
+                    // Lưu ý: chỉ đọc được màu đặt trực tiếp trên run (w:color); nếu màu
+                    // đỏ đến từ style thì không nhận ra được.
                     boolean hasRedRun = false;
-                    for (XWPFRun run : paragraph.getRuns()) {
-                        String color = run.getColor();
-                        // Lưu ý: với version POI hiện tại, chúng ta chỉ có thể lấy màu
-                        // trực tiếp từ run.getColor(). Nếu màu đỏ đến từ style phức tạp
-                        // thì thư viện này có thể không đọc được.
-                        if (color != null && isRedColor(color)) {
+                    for (String color : runColors) {
+                        if (isRedColor(color)) {
                             hasRedRun = true;
                             break;
                         }
                     }
 
-                    if (hasRedRun && trimmed.matches("^[A-Da-d][\\).].*")) {
+                    // Chỉ dòng "A)"/"a." như trước; dòng "- "/"+ " tô đỏ không phải đáp án
+                    if (hasRedRun && parser.isLetterOptionLine(trimmed)) {
                         trimmed = "*" + trimmed;
                     }
 
-                    lines.add(trimmed);
+                    parser.accept(trimmed);
+                }
+
+                @Override
+                public void onProgress(int doneKb, int totalKb) {
+                    listener.onProgress(doneKb, totalKb);
                 }
+
+                @Override
+                public boolean isCancelled() {
+                    return listener.isCancelled();
+                }
+            });
+            if (completed) {
+                parser.finish();
             }
-            questions.addAll(parseStructuredLines(lines));
         } catch (IOException e) {
             Log.e("ImportHelper", "DOCX parse error", e);
+            listener.onFailed(e);
+        } finally {
+            deleteCopy(copy);
         }
-        return questions;
     }
 
     public static List<Question> parseFromPdf(Context context, Uri uri) {
         List<Question> questions = new ArrayList<>();
+        parseFromPdf(context, uri, collectInto(questions));
+        return questions;
+    }
+
+    public static void parseFromPdf(Context context, Uri uri, Listener listener) {
         try (InputStream inputStream = context.getContentResolver().openInputStream(uri)) {
-            if (inputStream == null) return questions;
-            PDFBoxResourceLoader.init(context);
-            PDDocument document = PDDocument.load(inputStream);
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            questions.addAll(parseStructuredLines(splitToLines(text)));
-            document.close();
+            if (inputStream == null) return;
+            PdfSupport.ensureReady(context);
+            try (PDDocument document = PDDocument.load(inputStream)) {
+                extractPages(document, listener);
+            }
         } catch (IOException e) {
             Log.e("ImportHelper", "PDF parse error", e);
+            listener.onFailed(e);
         }
-        return questions;
     }
 
-    private static List<String> splitToLines(String text) throws IOException {
-        List<String> lines = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new java.io.ByteArrayInputStream(text.getBytes())))) {
+    /**
+     * Plain-text question bank, read line by line with the same rules as PDF and DOCX
+     * text, so a large file goes straight from disk into the parser.
+     */
+    public static void parseFromText(Context context, Uri uri, Listener listener) {
+        try (TextInput input = TextInput.open(context, uri)) {
+            if (input == null) return;
+            LineParser parser = new LineParser(listener);
             String line;
-            while ((line = reader.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    lines.add(line.trim());
+            int lineNumber = 0;
+            while ((line = input.reader.readLine()) != null) {
+                // Kiểm tra hủy và báo tiến độ theo từng khối dòng, không phải từng dòng
+                if (++lineNumber % PROGRESS_LINES == 0) {
+                    if (listener.isCancelled()) return;
+                    input.reportProgress(listener);
+                }
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty()) {
+                    parser.accept(trimmed);
+                }
+            }
+            parser.finish();
+            input.reportFinished(listener);
+        } catch (IOException e) {
+            Log.e("ImportHelper", "Text parse error", e);
+            listener.onFailed(e);
+        }
+    }
+
+    /**
+     * Như {@link #parseFromPdf(Context, Uri, Listener)} nhưng trích chữ của các trang
+     * song song trên nhiều luồng, mỗi luồng có PDDocument và PDFTextStripper riêng.
+     * Các dòng vẫn được đưa vào parser theo đúng thứ tự trang. File ít trang hoặc máy
+     * ít nhân thì trích tuần tự như bình thường.
+     */
+    public static void parseFromPdfParallel(Context context, Uri uri, Listener listener) {
+        File copy = null;
+        try {
+            // PDDocument không dùng chung giữa các luồng được, nên mỗi luồng tự mở file
+            copy = copyToCache(context, uri, ".pdf");
+            if (copy == null) return;
+            PdfSupport.ensureReady(context);
+            int pageCount;
+            try (PDDocument document = PDDocument.load(copy)) {
+                pageCount = document.getNumberOfPages();
+                int workers = Math.min(MAX_PDF_WORKERS, Runtime.getRuntime().availableProcessors() - 1);
+                if (pageCount < PARALLEL_MIN_PAGES || workers < 2) {
+                    extractPages(document, listener);
+                    return;
+                }
+            }
+            extractPagesParallel(copy, pageCount, listener);
+        } catch (IOException e) {
+            Log.e("ImportHelper", "PDF parse error", e);
+            listener.onFailed(e);
+        } finally {
+            deleteCopy(copy);
+        }
+    }
+
+    static void extractPages(PDDocument document, Listener listener) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        PDFTextStripper stripper = new PDFTextStripper();
+        LineParser parser = new LineParser(listener);
+        LineWriter writer = new LineWriter(parser::accept);
+        int pageCount = document.getNumberOfPages();
+        // Trích từng trang để báo tiến độ và trả câu hỏi sớm; chữ được ghi thẳng
+        // vào parser thay vì gom cả trang thành một String rồi tách dòng lại
+        for (int page = 1; page <= pageCount; page++) {
+            if (listener.isCancelled()) return;
+            stripper.setStartPage(page);
+            stripper.setEndPage(page);
+            stripper.writeText(document, writer);
+            writer.flush();
+            listener.onProgress(page, pageCount);
+        }
+        parser.finish();
+        logThroughput("sequential", pageCount, start);
+    }
+
+    static void extractPagesParallel(File file, int pageCount, Listener listener) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        int workers = Math.min(MAX_PDF_WORKERS, Runtime.getRuntime().availableProcessors() - 1);
+        int chunkCount = (pageCount + PAGES_PER_CHUNK - 1) / PAGES_PER_CHUNK;
+        List<CompletableFuture<List<String>>> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.add(new CompletableFuture<>());
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        // Giới hạn số khối đã trích mà parser chưa đọc, để bộ nhớ không phình theo số trang
+        Semaphore ahead = new Semaphore(workers * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-extract");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        try {
+            for (int w = 0; w < workers; w++) {
+                pool.execute(() -> extractChunks(file, pageCount, chunks, nextChunk, stopped, ahead));
+            }
+            LineParser parser = new LineParser(listener);
+            for (int i = 0; i < chunkCount; i++) {
+                if (listener.isCancelled()) return;
+                List<String> lines;
+                try {
+                    lines = chunks.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ahead.release();
+                for (String line : lines) {
+                    parser.accept(line);
+                }
+                listener.onProgress(Math.min((i + 1) * PAGES_PER_CHUNK, pageCount), pageCount);
+            }
+            parser.finish();
+            logThroughput("parallel x" + workers, pageCount, start);
+        } finally {
+            stopped.set(true);
+            ahead.release(workers);
+            pool.shutdown();
+        }
+    }
+
+    // Chạy trên mỗi luồng trích: lấy lần lượt các khối trang chưa ai nhận cho tới khi hết
+    private static void extractChunks(File file, int pageCount, List<CompletableFuture<List<String>>> chunks,
+                                      AtomicInteger nextChunk, AtomicBoolean stopped, Semaphore ahead) {
+        try (PDDocument document = PDDocument.load(file)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            while (!stopped.get()) {
+                ahead.acquireUninterruptibly();
+                int index = nextChunk.getAndIncrement();
+                if (stopped.get() || index >= chunks.size()) return;
+                List<String> lines = new ArrayList<>();
+                try (LineWriter writer = new LineWriter(lines::add)) {
+                    stripper.setStartPage(index * PAGES_PER_CHUNK + 1);
+                    stripper.setEndPage(Math.min((index + 1) * PAGES_PER_CHUNK, pageCount));
+                    stripper.writeText(document, writer);
+                } catch (IOException | RuntimeException e) {
+                    chunks.get(index).completeExceptionally(e);
+                    continue;
+                }
+                chunks.get(index).complete(lines);
+            }
+        } catch (IOException e) {
+            // Không mở được file: báo lỗi cho mọi khối còn lại để parser không chờ mãi
+            for (int i = nextChunk.getAndSet(chunks.size()); i < chunks.size(); i++) {
+                chunks.get(i).completeExceptionally(e);
+            }
+        }
+    }
+
+    private static void logThroughput(String mode, int pageCount, long start) {
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - start);
+        Log.d("ImportHelper", String.format(Locale.ROOT, "PDF %s: %d pages in %d ms (%.1f pages/s)",
+                mode, pageCount, elapsed, pageCount * 1000.0 / elapsed));
+    }
+
+    private static File copyToCache(Context context, Uri uri, String suffix) throws IOException {
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            if (in == null) return null;
+            File file = File.createTempFile("import", suffix, context.getCacheDir());
+            try (OutputStream out = new FileOutputStream(file)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
                 }
+            } catch (IOException e) {
+                file.delete();
+                throw e;
+            }
+            return file;
+        }
+    }
+
+    private static void deleteCopy(File copy) {
+        if (copy != null && !copy.delete()) {
+            copy.deleteOnExit();
+        }
+    }
+
+    private static Listener collectInto(List<Question> questions) {
+        return new Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+            }
+
+            @Override
+            public void onQuestion(Question question) {
+                questions.add(question);
+            }
+        };
+    }
+
+    /**
+     * Cuts the stripper's output into lines as it is written,
+     * so only the current line is buffered. {@link #flush()} ends the pending line.
+     */
+    private static class LineWriter extends Writer {
+        private final Consumer<String> sink;
+        private final StringBuilder line = new StringBuilder();
+
+        LineWriter(Consumer<String> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                char c = buffer[i];
+                if (c == '\n' || c == '\r') {
+                    endLine();
+                } else {
+                    line.append(c);
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            endLine();
+        }
+
+        @Override
+        public void close() {
+            endLine();
+        }
+
+        private void endLine() {
+            if (line.length() == 0) return;
+            String text = line.toString().trim();
+            line.setLength(0);
+            if (!text.isEmpty()) {
+                sink.accept(text);
             }
         }
-        return lines;
     }
 
     /**
      * Best-effort parser: detects lines that start with "Câu", "Question" or end with "?"
      * Options detected when line starts with A/B/C/D, "-" or contains "Đúng"/"Sai".
      * Correct answer hint if line contains "*", "[x]" or "(đúng)".
+     * Fed one line at a time; a question is emitted once the next one starts.
+     * Patterns are compiled once and each line is lower-cased once, since a large
+     * PDF feeds hundreds of thousands of lines through here.
      */
-    private static List<Question> parseStructuredLines(List<String> lines) {
-        List<Question> questions = new ArrayList<>();
-        String currentQuestion = null;
-        List<String> options = new ArrayList<>();
-        int correctIndex = -1;
+    static class LineParser {
+        private static final Pattern OPTION_LINE = Pattern.compile("[A-Da-d][).].*");
+        // Giữ nguyên biểu thức cũ: bỏ "A)" ở đầu, nếu không thì bỏ dấu "." đầu tiên
+        private static final Pattern QUESTION_MARKER = Pattern.compile("^[A-Da-d]\\)|\\.");
+        private static final Pattern OPTION_MARKER = Pattern.compile("[A-Da-d][).]\\s*");
+
+        private final Listener listener;
+        private final Matcher optionLine = OPTION_LINE.matcher("");
+        private final Matcher questionMarker = QUESTION_MARKER.matcher("");
+        private final Matcher optionMarker = OPTION_MARKER.matcher("");
+        private String currentQuestion;
+        private List<String> options = new ArrayList<>();
+        private int correctIndex = -1;
+
+        LineParser(Listener listener) {
+            this.listener = listener;
+        }
 
-        for (String raw : lines) {
+        void accept(String raw) {
             String line = raw.trim();
-            boolean looksLikeQuestion = line.toLowerCase(Locale.ROOT).startsWith("câu") ||
-                    line.toLowerCase(Locale.ROOT).startsWith("question") ||
+            String lower = line.toLowerCase(Locale.ROOT);
+            boolean looksLikeQuestion = lower.startsWith("câu") ||
+                    lower.startsWith("question") ||
                     line.endsWith("?");
-            boolean looksLikeOption = line.matches("^[A-Da-d][\\).].*") || line.startsWith("- ") || line.startsWith("+ ");
 
             if (looksLikeQuestion) {
-                if (currentQuestion != null && !options.isEmpty()) {
-                    questions.add(buildQuestion(currentQuestion, options, correctIndex));
-                }
-                currentQuestion = line.replaceFirst("^[A-Da-d]\\)|\\.", "").trim();
+                emit();
+                currentQuestion = questionMarker.reset(line).replaceFirst("").trim();
                 options = new ArrayList<>();
                 correctIndex = -1;
-            } else if (looksLikeOption || currentQuestion != null) {
-                boolean isCorrect = line.contains("*") || line.contains("[x]") || line.toLowerCase(Locale.ROOT).contains("(đúng)");
-                String cleaned = line.replaceFirst("^[A-Da-d][\\).]\\s*", "").replace("*", "").replace("[x]", "").trim();
-                options.add(cleaned);
+            } else if (currentQuestion != null || isOptionLine(line)) {
+                boolean isCorrect = line.indexOf('*') >= 0 || line.contains("[x]") || lower.contains("(đúng)");
+                options.add(cleanOption(line));
                 if (isCorrect) {
                     correctIndex = options.size() - 1;
                 }
             }
         }
 
-        if (currentQuestion != null && !options.isEmpty()) {
-            questions.add(buildQuestion(currentQuestion, options, correctIndex));
+        void finish() {
+            emit();
+            currentQuestion = null;
         }
 
-        return questions;
+        boolean isOptionLine(String line) {
+            return isLetterOptionLine(line) || line.startsWith("- ") || line.startsWith("+ ");
+        }
+
+        /** "A)", "b." and the like, without the "- " and "+ " bullets. */
+        boolean isLetterOptionLine(String line) {
+            return optionLine.reset(line).matches();
+        }
+
+        private String cleanOption(String line) {
+            String cleaned = optionMarker.reset(line).lookingAt() ? line.substring(optionMarker.end()) : line;
+            if (cleaned.indexOf('*') >= 0) {
+                cleaned = cleaned.replace("*", "");
+            }
+            if (cleaned.contains("[x]")) {
+                cleaned = cleaned.replace("[x]", "");
+            }
+            return cleaned.trim();
+        }
+
+        private void emit() {
+            if (currentQuestion != null && !options.isEmpty()) {
+                listener.onQuestion(buildQuestion(currentQuestion, options, correctIndex));
+            }
+        }
     }
 
     // Nhận diện màu đỏ trong các run của DOCX (thường lưu dưới dạng "FF0000").
@@ -148,14 +477,40 @@ public class ImportHelper {
                 || normalized.endsWith("FF0000");  // dạng ARGB
     }
 
-    private static Question buildQuestion(String content, List<String> options, int correctIndex) {
-        if (options.size() == 2 &&
-                (options.get(0).toLowerCase(Locale.ROOT).contains("đúng") || options.get(0).toLowerCase(Locale.ROOT).contains("true")) &&
-                (options.get(1).toLowerCase(Locale.ROOT).contains("sai") || options.get(1).toLowerCase(Locale.ROOT).contains("false"))) {
+    static Question buildQuestion(String content, List<String> options, int correctIndex) {
+        if (options.size() == 2 && isTrueFalse(options.get(0).toLowerCase(Locale.ROOT), options.get(1).toLowerCase(Locale.ROOT))) {
             return new Question(content, options, correctIndex == -1 ? 0 : correctIndex, QuestionType.TRUE_FALSE);
         }
         return new Question(content, options, correctIndex == -1 ? 0 : correctIndex, QuestionType.MULTIPLE_CHOICE);
     }
+
+    /**
+     * Index of the option a correct-answer column refers to: a letter (A, B…), a
+     * 1-based number or the option's own text. -1 if {@code ref} is none of these.
+     */
+    static int resolveAnswer(String ref, List<String> options) {
+        String trimmed = ref == null ? "" : ref.trim();
+        if (trimmed.isEmpty()) return -1;
+        if (trimmed.length() == 1 && Character.isLetter(trimmed.charAt(0))) {
+            int index = Character.toUpperCase(trimmed.charAt(0)) - 'A';
+            if (index >= 0 && index < options.size()) return index;
+        }
+        try {
+            int number = Integer.parseInt(trimmed);
+            if (number >= 1 && number <= options.size()) return number - 1;
+        } catch (NumberFormatException e) {
+            // Không phải số: so với nội dung đáp án
+        }
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i).trim().equalsIgnoreCase(trimmed)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isTrueFalse(String first, String second) {
+        return (first.contains("đúng") || first.contains("true"))
+                && (second.contains("sai") || second.contains("false"));
+    }
 }
 
 
@@ -0,0 +1,239 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import com.example.studyquizz.model.Question;
+import com.tom_roush.pdfbox.pdmodel.encryption.InvalidPasswordException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipException;
+
+/**
+ * Runs an {@link ImportHelper} parse off the main thread. Progress and questions
+ * found so far are delivered on the main thread in batches, and nothing is
+ * delivered any more once the job is cancelled. A file imported before and not
+ * changed since is answered from {@link ImportCache} without parsing.
+ */
+public class ImportJob {
+    public interface Callback {
+        /** {@code done} of {@code total} pages (PDF) or kilobytes of text (other formats). */
+        void onProgress(int done, int total);
+
+        void onQuestions(List<Question> questions);
+
+        /**
+         * The parser failed unexpectedly; questions found before the failure were
+         * delivered, and {@link #onFinished} still follows.
+         */
+        default void onError(RuntimeException e) {
+        }
+
+        /**
+         * The document could not be read to the end, e.g. an encrypted or corrupt PDF;
+         * questions found before were delivered, and {@link #onFinished} still follows.
+         * {@link #describeFailure} turns {@code e} into a message for the user.
+         */
+        default void onFailed(IOException e) {
+        }
+
+        void onFinished(int questionCount);
+    }
+
+    private static final String TAG = "ImportJob";
+
+    // Batches are posted at most this often, so a long DOCX does not flood the main thread
+    private static final long DELIVERY_INTERVAL_MS = 150;
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "quiz-import");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final Callback callback;
+    private volatile boolean cancelled;
+    // Parsing thread only
+    private final List<Question> pending = new ArrayList<>();
+    private long lastDelivery;
+    private int questionCount;
+
+    private ImportJob(Callback callback) {
+        this.callback = callback;
+    }
+
+    public static ImportJob start(Context context, Uri uri, QuestionSource source, Callback callback) {
+        ImportJob job = new ImportJob(callback);
+        Context appContext = context.getApplicationContext();
+        EXECUTOR.execute(() -> job.run(appContext, uri, source));
+        return job;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Lấy tên file hiển thị từ Uri (tên gốc trong bộ chọn file nếu có)
+    public static String displayName(Context context, Uri uri) {
+        String result = null;
+        if ("content".equals(uri.getScheme())) {
+            try (Cursor cursor = context.getContentResolver().query(uri, null, null, null, null)) {
+                if (cursor != null) {
+                    int nameIndex = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                    if (nameIndex >= 0 && cursor.moveToFirst()) {
+                        result = cursor.getString(nameIndex);
+                    }
+                }
+            }
+        }
+        if (result == null) {
+            result = uri.getLastPathSegment();
+            if (result != null) {
+                int slash = result.lastIndexOf('/');
+                if (slash >= 0 && slash < result.length() - 1) {
+                    result = result.substring(slash + 1);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses {@code uri} on the calling thread, answering from {@link ImportCache} when
+     * the same file was parsed before and storing the result otherwise. Returns false
+     * if the document could not be read to the end.
+     */
+    static boolean parse(Context context, Uri uri, QuestionSource source, ImportHelper.Listener listener) {
+        String cacheKey = ImportCache.keyOf(context, uri, source);
+        List<Question> cached = cacheKey != null ? ImportCache.get(context, cacheKey) : null;
+        if (cached != null) {
+            for (Question question : cached) {
+                listener.onQuestion(question);
+            }
+            return true;
+        }
+        // Bản sao riêng để lưu cache, vì màn hình review có thể sửa câu hỏi đã giao
+        List<Question> parsed = new ArrayList<>();
+        boolean[] failed = new boolean[1];
+        ImportHelper.Listener caching = new ImportHelper.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+                listener.onProgress(done, total);
+            }
+
+            @Override
+            public void onQuestion(Question question) {
+                parsed.add(new Question(question.getContent(), question.getOptions(),
+                        question.getCorrectIndex(), question.getType()));
+                listener.onQuestion(question);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return listener.isCancelled();
+            }
+
+            @Override
+            public void onFailed(IOException e) {
+                failed[0] = true;
+                listener.onFailed(e);
+            }
+        };
+        source.parse(context, uri, caching);
+        if (cacheKey != null && !listener.isCancelled() && !failed[0] && !parsed.isEmpty()) {
+            ImportCache.put(context, cacheKey, parsed);
+        }
+        return !failed[0];
+    }
+
+    private void run(Context context, Uri uri, QuestionSource source) {
+        if (cancelled) return;
+        try {
+            parseInto(context, uri, source);
+        } catch (RuntimeException e) {
+            // PDFBox and the XML parser report some malformed files this way
+            Log.e(TAG, "Import failed", e);
+            post(() -> callback.onError(e));
+        } finally {
+            // Always posted, so the screen never waits for a job that died
+            finish();
+        }
+    }
+
+    private void parseInto(Context context, Uri uri, QuestionSource source) {
+        parse(context, uri, source, new ImportHelper.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+                deliver(done, total, done == total);
+            }
+
+            @Override
+            public void onQuestion(Question question) {
+                pending.add(question);
+                questionCount++;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public void onFailed(IOException e) {
+                post(() -> callback.onFailed(e));
+            }
+        });
+    }
+
+    /** Lý do đọc file thất bại, đủ để người dùng biết file có mật khẩu, hỏng hay không đúng định dạng. */
+    public static String describeFailure(IOException e) {
+        if (e instanceof InvalidPasswordException) {
+            return "file PDF được bảo vệ bằng mật khẩu";
+        }
+        if (e instanceof DocxReader.FormatException || e instanceof ZipException) {
+            // DOCX là một file ZIP, nên file hỏng hoặc không phải DOCX báo lỗi ở đây
+            return "file không phải DOCX hợp lệ hoặc đã bị hỏng";
+        }
+        String message = e.getMessage();
+        return message != null && !message.isEmpty() ? message : e.getClass().getSimpleName();
+    }
+
+    private void finish() {
+        // The last question is only complete once parsing ends
+        deliver(-1, -1, true);
+        int count = questionCount;
+        post(() -> callback.onFinished(count));
+    }
+
+    private void deliver(int done, int total, boolean force) {
+        long now = SystemClock.uptimeMillis();
+        if (!force && now - lastDelivery < DELIVERY_INTERVAL_MS) return;
+        lastDelivery = now;
+        List<Question> batch = pending.isEmpty() ? null : new ArrayList<>(pending);
+        pending.clear();
+        post(() -> {
+            if (batch != null) callback.onQuestions(batch);
+            if (done >= 0) callback.onProgress(done, total);
+        });
+    }
+
+    private void post(Runnable delivery) {
+        MAIN.post(() -> {
+            if (!cancelled) delivery.run();
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.QuestionType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One JSON object per line:
+ * {@code {"question": "...", "options": ["...", "..."], "answer": "B"}}.
+ * "content" is accepted for "question"; "answer" is a letter, a 1-based number or
+ * the option's text as in CSV, or "correctIndex" gives the 0-based index (a letter or
+ * the option's text is accepted there too). An optional
+ * "type" of MULTIPLE_CHOICE or TRUE_FALSE overrides the guess from the options.
+ * Lines that are not such an object are logged and skipped.
+ */
+class JsonLinesQuestionSource implements QuestionSource {
+    private static final String TAG = "JsonLinesQuestionSource";
+
+    @Override
+    public String getName() {
+        return "jsonl";
+    }
+
+    @Override
+    public void parse(Context context, Uri uri, ImportHelper.Listener listener) {
+        try (TextInput input = TextInput.open(context, uri)) {
+            if (input == null) return;
+            String line;
+            int lineNumber = 0;
+            while ((line = input.reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber % ImportHelper.PROGRESS_LINES == 0) {
+                    if (listener.isCancelled()) return;
+                    input.reportProgress(listener);
+                }
+                if (line.trim().isEmpty()) continue;
+                Question question = null;
+                try {
+                    JsonElement element = JsonParser.parseString(line);
+                    if (element.isJsonObject()) {
+                        question = toQuestion(element.getAsJsonObject());
+                    }
+                } catch (JsonParseException | IllegalStateException | UnsupportedOperationException
+                        | NumberFormatException e) {
+                    // Sai kiểu ở một trường: bỏ dòng này, các dòng khác vẫn nhập được
+                }
+                if (question != null) {
+                    listener.onQuestion(question);
+                } else {
+                    Log.e(TAG, "Skipping line " + lineNumber + ": not a question object");
+                }
+            }
+            input.reportFinished(listener);
+        } catch (IOException e) {
+            Log.e(TAG, "JSON Lines parse error", e);
+            listener.onFailed(e);
+        }
+    }
+
+    static Question toQuestion(JsonObject object) {
+        String content = text(object, "question");
+        if (content == null) content = text(object, "content");
+        JsonElement optionsElement = object.get("options");
+        if (content == null || content.trim().isEmpty() || optionsElement == null || !optionsElement.isJsonArray()) {
+            return null;
+        }
+        JsonArray array = optionsElement.getAsJsonArray();
+        List<String> options = new ArrayList<>(array.size());
+        for (JsonElement option : array) {
+            if (!option.isJsonNull()) options.add(option.getAsString());
+        }
+        if (options.isEmpty()) return null;
+
+        int correctIndex = -1;
+        String answer = text(object, "answer");
+        if (answer != null) {
+            correctIndex = ImportHelper.resolveAnswer(answer, options);
+        } else if (object.has("correctIndex") && !object.get("correctIndex").isJsonNull()) {
+            correctIndex = resolveIndex(object.get("correctIndex").getAsString(), options);
+        }
+
+        String type = text(object, "type");
+        if (type != null) {
+            for (QuestionType candidate : QuestionType.values()) {
+                if (candidate.name().equalsIgnoreCase(type.trim())) {
+                    return new Question(content.trim(), options, Math.max(0, correctIndex), candidate);
+                }
+            }
+        }
+        return ImportHelper.buildQuestion(content.trim(), options, correctIndex);
+    }
+
+    // 0-based số thứ tự; "B" hay nội dung đáp án thì hiểu như trường "answer"
+    private static int resolveIndex(String value, List<String> options) {
+        try {
+            int index = Integer.parseInt(value.trim());
+            return index >= 0 && index < options.size() ? index : -1;
+        } catch (NumberFormatException e) {
+            return ImportHelper.resolveAnswer(value, options);
+        }
+    }
+
+    private static String text(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.PDPageContentStream;
+import com.tom_roush.pdfbox.pdmodel.font.PDType1Font;
+import com.tom_roush.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * One-time PDFBox setup. Loading PDFBox's resources and the font metrics and glyph
+ * list its text extraction needs takes a noticeable moment, so it is done once on a
+ * background thread as soon as an import may be coming, and PDF parsing waits for
+ * it only if it has not finished yet. A setup that failed is tried again by the next
+ * PDF import, which sees the error if it fails again.
+ */
+public final class PdfSupport {
+    private static final String TAG = "PdfSupport";
+    private static final Object lock = new Object();
+    // Có một lượt khởi tạo đang chạy; các luồng khác chờ trên lock. Guarded by lock.
+    private static boolean initializing;
+    // Chỉ đặt khi PDFBoxResourceLoader.init thành công; lỗi thì lượt sau thử lại
+    private static volatile boolean ready;
+
+    private PdfSupport() {
+    }
+
+    /** Starts the setup in the background unless it is done or already running. */
+    public static void warmUpAsync(Context context) {
+        synchronized (lock) {
+            if (ready || initializing) return;
+            initializing = true;
+        }
+        Context appContext = context.getApplicationContext();
+        Thread thread = new Thread(() -> {
+            try {
+                warmUp(appContext);
+            } catch (RuntimeException e) {
+                // Chỉ là làm nóng: ensureReady sẽ khởi tạo lại khi thực sự đọc PDF
+                Log.e(TAG, "PDF warm-up failed", e);
+            }
+        }, "pdf-warmup");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Blocks until PDFBox is set up. Waits for a warm-up that is still running, and
+     * does the setup on this thread if nobody started it or an earlier attempt failed.
+     *
+     * @throws IOException if PDFBox cannot be initialized
+     */
+    static void ensureReady(Context context) throws IOException {
+        if (ready) return;
+        long start = SystemClock.elapsedRealtime();
+        synchronized (lock) {
+            while (initializing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for PDFBox");
+                }
+            }
+            if (ready) {
+                Log.d(TAG, "PDF import waited " + (SystemClock.elapsedRealtime() - start) + " ms for warm-up");
+                return;
+            }
+            initializing = true;
+        }
+        try {
+            warmUp(context.getApplicationContext());
+        } catch (RuntimeException e) {
+            throw new IOException("PDFBox init failed", e);
+        }
+    }
+
+    // Gọi khi đã giữ quyền khởi tạo (initializing = true); luôn trả lại quyền đó khi xong
+    private static void warmUp(Context context) {
+        boolean initialized = false;
+        try {
+            long start = SystemClock.elapsedRealtime();
+            PDFBoxResourceLoader.init(context);
+            initialized = true;
+            long initDone = SystemClock.elapsedRealtime();
+            try {
+                extractSample();
+            } catch (IOException | RuntimeException e) {
+                // Trích thử chỉ để nạp trước font, hỏng thì lần đọc thật sẽ tự nạp
+                Log.w(TAG, "PDF sample extraction failed", e);
+            }
+            Log.d(TAG, "PDFBox init " + (initDone - start) + " ms, first extraction "
+                    + (SystemClock.elapsedRealtime() - initDone) + " ms");
+        } finally {
+            synchronized (lock) {
+                ready = initialized;
+                initializing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Trích chữ từ một trang nhỏ tạo trong bộ nhớ, để nạp font metrics và glyph list trước
+    private static void extractSample() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 12);
+                content.newLineAtOffset(72, 720);
+                content.showText("Question 1: A. B. C. D.");
+                content.endText();
+            }
+            new PDFTextStripper().getText(document);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.net.Uri;
+
+/**
+ * A document format questions can be imported from. Implementations read the
+ * document as a stream and hand each question to the listener as soon as it is
+ * complete; a document that cannot be read to the end is reported through
+ * {@link ImportHelper.Listener#onFailed}. New formats are made known to the
+ * importer with {@link QuestionSources#register}.
+ */
+public interface QuestionSource {
+    /** Short stable name such as "pdf"; part of the import cache key. */
+    String getName();
+
+    /** Runs on a background thread. */
+    void parse(Context context, Uri uri, ImportHelper.Listener listener);
+}
@@ -0,0 +1,104 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry of the formats the importer understands, looked up by file extension
+ * and MIME type. The built-in formats are registered here; others can be added
+ * with {@link #register}.
+ */
+public final class QuestionSources {
+    public static final QuestionSource PDF = source("pdf", ImportHelper::parseFromPdfParallel);
+    // Cùng định dạng, trích tuần tự: dùng khi nhập hàng loạt vì các file đã được đọc song song
+    static final QuestionSource PDF_SEQUENTIAL = source("pdf", ImportHelper::parseFromPdf);
+    public static final QuestionSource DOCX = source("docx", ImportHelper::parseFromDocx);
+    public static final QuestionSource TEXT = source("txt", ImportHelper::parseFromText);
+    public static final QuestionSource CSV = new CsvQuestionSource("csv", ',');
+    public static final QuestionSource TSV = new CsvQuestionSource("tsv", '\t');
+    public static final QuestionSource JSON_LINES = new JsonLinesQuestionSource();
+
+    private static final Map<String, QuestionSource> BY_MIME = new LinkedHashMap<>();
+    private static final Map<String, QuestionSource> BY_EXTENSION = new HashMap<>();
+
+    static {
+        register(PDF, new String[]{"application/pdf"}, new String[]{"pdf"});
+        register(DOCX, new String[]{
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+                "application/msword"
+        }, new String[]{"docx"});
+        register(TEXT, new String[]{"text/plain"}, new String[]{"txt"});
+        register(CSV, new String[]{"text/csv", "text/comma-separated-values"}, new String[]{"csv"});
+        register(TSV, new String[]{"text/tab-separated-values"}, new String[]{"tsv", "tab"});
+        register(JSON_LINES, new String[]{"application/jsonl", "application/x-ndjson", "application/x-jsonlines"},
+                new String[]{"jsonl", "ndjson"});
+    }
+
+    private QuestionSources() {
+    }
+
+    /** Extensions are given without the dot; later registrations win over earlier ones. */
+    public static synchronized void register(QuestionSource source, String[] mimeTypes, String[] extensions) {
+        for (String mime : mimeTypes) {
+            BY_MIME.put(mime.toLowerCase(Locale.ROOT), source);
+        }
+        for (String extension : extensions) {
+            BY_EXTENSION.put(extension.toLowerCase(Locale.ROOT), source);
+        }
+    }
+
+    /**
+     * The source for a file, by the extension of {@code name} first (providers often
+     * report text formats as text/plain or octet-stream), then by MIME type; null if
+     * neither is registered.
+     */
+    public static synchronized QuestionSource find(String mime, String name) {
+        String extension = extensionOf(name);
+        QuestionSource source = extension != null ? BY_EXTENSION.get(extension) : null;
+        if (source == null && mime != null) {
+            source = BY_MIME.get(mime.toLowerCase(Locale.ROOT));
+        }
+        return source;
+    }
+
+    /** Like {@link #find}, but an unknown file is read as PDF, as the importer always did. */
+    public static QuestionSource forFile(String mime, String name) {
+        QuestionSource source = find(mime, name);
+        return source != null ? source : PDF;
+    }
+
+    /** MIME types to offer in the file picker. */
+    public static synchronized String[] getMimeTypes() {
+        return BY_MIME.keySet().toArray(new String[0]);
+    }
+
+    static String extensionOf(String name) {
+        if (name == null) return null;
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || dot == name.length() - 1 || name.indexOf('/', dot) >= 0) return null;
+        return name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private interface Parser {
+        void parse(Context context, Uri uri, ImportHelper.Listener listener);
+    }
+
+    private static QuestionSource source(String name, Parser parser) {
+        return new QuestionSource() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void parse(Context context, Uri uri, ImportHelper.Listener listener) {
+                parser.parse(context, uri, listener);
+            }
+        };
+    }
+}
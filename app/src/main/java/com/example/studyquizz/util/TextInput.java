@@ -0,0 +1,79 @@
+package com.example.studyquizz.util;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.OpenableColumns;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A UTF-8 text document opened for a streaming import: a reader with any byte
+ * order mark skipped, and progress in kilobytes when the provider knows the size.
+ */
+class TextInput implements Closeable {
+    final BufferedReader reader;
+    private final CountingInputStream counting;
+    private final int totalKb;
+
+    private TextInput(InputStream raw, long size) throws IOException {
+        counting = new CountingInputStream(new BufferedInputStream(raw));
+        reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8));
+        totalKb = size > 0 ? (int) Math.max(1, size / 1024) : 0;
+        // Excel và Notepad hay ghi BOM ở đầu file UTF-8
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    /** Null if the provider has no stream for {@code uri}. */
+    static TextInput open(Context context, Uri uri) throws IOException {
+        InputStream raw = context.getContentResolver().openInputStream(uri);
+        if (raw == null) return null;
+        try {
+            return new TextInput(raw, sizeOf(context, uri));
+        } catch (IOException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    void reportProgress(ImportHelper.Listener listener) {
+        if (totalKb > 0) {
+            listener.onProgress((int) Math.min(totalKb, counting.getCount() / 1024), totalKb);
+        }
+    }
+
+    void reportFinished(ImportHelper.Listener listener) {
+        if (totalKb > 0) {
+            listener.onProgress(totalKb, totalKb);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static long sizeOf(Context context, Uri uri) {
+        if ("file".equals(uri.getScheme()) && uri.getPath() != null) {
+            return new File(uri.getPath()).length();
+        }
+        try (Cursor cursor = context.getContentResolver().query(uri, new String[]{OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        } catch (RuntimeException e) {
+            // Một số provider không hỗ trợ query; khi đó không báo tiến độ
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.studyquizz.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.QuestionType;
+import com.example.studyquizz.model.Quiz;
+import com.example.studyquizz.model.QuizResult;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class BinaryRecordCodecTest {
+    private final BinaryRecordCodec codec = new BinaryRecordCodec(new OptionPool());
+
+    @Test
+    public void headerRoundTripsEveryField() {
+        Quiz quiz = new Quiz("Địa lý", "Mô tả", "geography", "Ôn thi");
+        quiz.setDurationMinutes(45);
+        Quiz decoded = codec.decodeHeader(codec.encodeHeader(quiz));
+        assertEquals(quiz.getId(), decoded.getId());
+        assertEquals("Địa lý", decoded.getTitle());
+        assertEquals("Mô tả", decoded.getDescription());
+        assertEquals("geography", decoded.getCategory());
+        assertEquals("Ôn thi", decoded.getCustomCategory());
+        assertEquals(45, decoded.getDurationMinutes());
+    }
+
+    @Test
+    public void headerKeepsDefaultAndZeroDurationAndNulls() {
+        Quiz quiz = new Quiz();
+        Quiz decoded = codec.decodeHeader(codec.encodeHeader(quiz));
+        assertEquals(15, decoded.getDurationMinutes());
+        assertNull(decoded.getTitle());
+        assertNull(decoded.getDescription());
+        assertNull(decoded.getCategory());
+        assertNull(decoded.getCustomCategory());
+
+        quiz.setDurationMinutes(0);
+        assertEquals(0, codec.decodeHeader(codec.encodeHeader(quiz)).getDurationMinutes());
+    }
+
+    @Test
+    public void questionsRoundTripEveryField() {
+        Question multiple = new Question("Thủ đô?", Arrays.asList("Hà Nội", "Huế", "Đúng"), 2, QuestionType.MULTIPLE_CHOICE);
+        multiple.setFingerprint(-42L);
+        Question trueFalse = new Question("Trái đất tròn?", Arrays.asList("Đúng", "Sai"), 0, QuestionType.TRUE_FALSE);
+        Question unanswered = new Question("Không đáp án", Arrays.asList("x", null), -1, null);
+        Question empty = new Question(null, Collections.emptyList(), 0, QuestionType.MULTIPLE_CHOICE);
+        List<Question> questions = Arrays.asList(multiple, trueFalse, unanswered, empty);
+
+        List<Question> decoded = codec.decodeQuestions(codec.encodeQuestions(questions));
+        assertEquals(questions.size(), decoded.size());
+        for (int i = 0; i < questions.size(); i++) {
+            assertQuestionEquals(questions.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    public void bankQuestionRoundTripsEveryField() {
+        Question question = new Question("Câu hỏi", Arrays.asList("A", "B", "C"), 1, QuestionType.MULTIPLE_CHOICE);
+        question.setFingerprint(Long.MAX_VALUE);
+        assertQuestionEquals(question, codec.decodeQuestion(codec.encodeQuestion(question)));
+
+        Question defaults = new Question(null, Collections.emptyList(), 0, null);
+        assertQuestionEquals(defaults, codec.decodeQuestion(codec.encodeQuestion(defaults)));
+    }
+
+    @Test
+    public void resultRoundTripsEveryField() {
+        QuizResult result = new QuizResult("quiz", "Tiêu đề", 3, 1, 5, 600, 80, 1_700_000_000_000L, 95_000L,
+                new byte[]{0, 3, (byte) QuizResult.NO_ANSWER, 1, 2});
+        assertResultEquals(result, codec.decodeResult(codec.encodeResult(result)));
+
+        QuizResult zeros = new QuizResult("quiz", null, 0, 0, 0, 0, 0, 0L, 0L, new byte[0]);
+        assertResultEquals(zeros, codec.decodeResult(codec.encodeResult(zeros)));
+    }
+
+    @Test
+    public void snapshotRoundTripsResultsAndGeneration() throws IOException {
+        Map<String, List<QuizResult>> history = generateHistory(new Random(1), 50);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.writeSnapshot(out, 7, history);
+
+        Map<String, List<QuizResult>> read = new LinkedHashMap<>();
+        assertEquals(7, codec.readSnapshot(new ByteArrayInputStream(out.toByteArray()), read));
+        assertEquals(history.keySet(), read.keySet());
+        for (String quizId : history.keySet()) {
+            List<QuizResult> expected = history.get(quizId);
+            assertEquals(expected.size(), read.get(quizId).size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertResultEquals(expected.get(i), read.get(quizId).get(i));
+            }
+        }
+    }
+
+    @Test
+    public void unknownFieldsAreSkipped() {
+        Quiz quiz = new Quiz("Title", null, null, null);
+        byte[] header = codec.encodeHeader(quiz);
+        // Field 20 as a varint, then field 21 as bytes: written by a newer version
+        byte[] extended = Arrays.copyOf(header, header.length + 6);
+        extended[header.length] = (byte) (20 << 3);
+        extended[header.length + 1] = 5;
+        extended[header.length + 2] = (byte) (21 << 3 | 2);
+        extended[header.length + 3] = 2;
+        extended[header.length + 4] = 'h';
+        extended[header.length + 5] = 'i';
+        Quiz decoded = codec.decodeHeader(extended);
+        assertEquals("Title", decoded.getTitle());
+        assertEquals(quiz.getId(), decoded.getId());
+    }
+
+    @Test
+    public void largeDataSetRoundTripsSmallerThanJson() throws IOException {
+        Random random = new Random(42);
+        JsonRecordCodec json = new JsonRecordCodec(new Gson(), new OptionPool());
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            boolean trueFalse = random.nextInt(3) == 0;
+            List<String> options = trueFalse ? Arrays.asList("Đúng", "Sai")
+                    : Arrays.asList("Đáp án " + random.nextInt(50), "Đáp án " + random.nextInt(50),
+                    "Đáp án " + random.nextInt(50), "Đáp án " + random.nextInt(50));
+            questions.add(new Question("Câu hỏi số " + i + " về chủ đề " + random.nextInt(100), options,
+                    random.nextInt(options.size()), trueFalse ? QuestionType.TRUE_FALSE : QuestionType.MULTIPLE_CHOICE));
+        }
+        byte[] binaryQuestions = codec.encodeQuestions(questions);
+        List<Question> decoded = codec.decodeQuestions(binaryQuestions);
+        for (int i = 0; i < questions.size(); i++) {
+            assertQuestionEquals(questions.get(i), decoded.get(i));
+        }
+
+        Map<String, List<QuizResult>> history = generateHistory(random, 5000);
+        ByteArrayOutputStream binaryHistory = new ByteArrayOutputStream();
+        codec.writeSnapshot(binaryHistory, 1, history);
+        ByteArrayOutputStream jsonHistory = new ByteArrayOutputStream();
+        json.writeSnapshot(jsonHistory, 1, history);
+
+        double questionRatio = (double) binaryQuestions.length / json.encodeQuestions(questions).length;
+        double historyRatio = (double) binaryHistory.size() / jsonHistory.size();
+        assertTrue("questions at " + questionRatio + " of JSON", questionRatio < 0.65);
+        assertTrue("history at " + historyRatio + " of JSON", historyRatio < 0.4);
+    }
+
+    private static Map<String, List<QuizResult>> generateHistory(Random random, int count) {
+        Map<String, List<QuizResult>> history = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String quizId = "quiz-" + random.nextInt(20);
+            byte[] answers = new byte[20];
+            for (int a = 0; a < answers.length; a++) {
+                answers[a] = (byte) (random.nextInt(5) - 1);
+            }
+            int correct = random.nextInt(21);
+            QuizResult result = new QuizResult(quizId, "Quiz " + quizId, correct, 20 - correct, 20,
+                    correct * 50, 100, 1_700_000_000_000L + i * 60_000L, random.nextInt(600_000), answers);
+            List<QuizResult> list = history.get(quizId);
+            if (list == null) {
+                list = new ArrayList<>();
+                history.put(quizId, list);
+            }
+            list.add(result);
+        }
+        return history;
+    }
+
+    private static void assertQuestionEquals(Question expected, Question actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getContent(), actual.getContent());
+        assertEquals(expected.getOptions(), actual.getOptions());
+        assertEquals(expected.getCorrectIndex(), actual.getCorrectIndex());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getFingerprint(), actual.getFingerprint());
+    }
+
+    private static void assertResultEquals(QuizResult expected, QuizResult actual) {
+        assertEquals(expected.getQuizId(), actual.getQuizId());
+        assertEquals(expected.getQuizTitle(), actual.getQuizTitle());
+        assertEquals(expected.getCorrectCount(), actual.getCorrectCount());
+        assertEquals(expected.getWrongCount(), actual.getWrongCount());
+        assertEquals(expected.getTotal(), actual.getTotal());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getCompletionRate(), actual.getCompletionRate());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getDuration(), actual.getDuration());
+        assertEquals(expected.getAnswerCount(), actual.getAnswerCount());
+        for (int i = 0; i < expected.getAnswerCount(); i++) {
+            assertEquals(expected.getAnswerAt(i), actual.getAnswerAt(i));
+        }
+    }
+}
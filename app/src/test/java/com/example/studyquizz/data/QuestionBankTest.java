@@ -0,0 +1,115 @@
+package com.example.studyquizz.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.QuestionType;
+import com.example.studyquizz.model.Quiz;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class QuestionBankTest {
+    private static final int QUESTION_COUNT = 1200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final BinaryRecordCodec codec = new BinaryRecordCodec(new OptionPool());
+    private QuestionBank bank;
+
+    @Before
+    public void setUp() throws IOException {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < QUESTION_COUNT; i++) {
+            questions.add(new Question("Question " + i, Arrays.asList("A" + i, "B" + i, "C" + i), 0,
+                    QuestionType.MULTIPLE_CHOICE));
+        }
+        bank = writeAndOpen(questions);
+    }
+
+    @Test
+    public void getKeepsDecodedQuestion() {
+        assertSame(bank.get(7), bank.get(7));
+    }
+
+    @Test
+    public void removeByObjectFindsRetainedQuestion() {
+        Question question = bank.get(10);
+        assertTrue(bank.remove(question));
+        assertEquals(QUESTION_COUNT - 1, bank.size());
+        assertEquals("Question 11", bank.get(10).getContent());
+        assertFalse(bank.remove(new Question()));
+    }
+
+    @Test
+    public void fingerprintsComeFromHeaderAndFollowEdits() {
+        long[] fingerprints = bank.fingerprints(false);
+        assertEquals(QUESTION_COUNT, fingerprints.length);
+        assertEquals(QuestionFingerprint.of(bank.get(3)), fingerprints[3]);
+
+        bank.get(3).setContent("Changed");
+        assertEquals(QuestionFingerprint.of(bank.get(3)), bank.fingerprints(true)[3]);
+        assertEquals(fingerprints[4], bank.fingerprints(true)[4]);
+    }
+
+    @Test
+    public void editsOnDetachedQuestionsAreSaved() throws IOException {
+        Quiz quiz = new Quiz("Large", "", null, null);
+        quiz.attachQuestions(bank);
+        quiz.detachQuestions();
+
+        // What the review screen does: the adapter copies the list, then edits and removes its items
+        List<Question> shown = new ArrayList<>(quiz.getQuestions());
+        shown.get(5).setCorrectIndex(2);
+        shown.get(6).setContent("Edited");
+        assertTrue(quiz.getQuestions().remove(shown.get(10)));
+
+        QuestionBank saved = writeAndOpen(quiz.getQuestions());
+        assertEquals(QUESTION_COUNT - 1, saved.size());
+        assertEquals(2, saved.get(5).getCorrectIndex());
+        assertEquals("Edited", saved.get(6).getContent());
+        assertEquals("Question 11", saved.get(10).getContent());
+    }
+
+    @Test
+    public void snapshotKeepsEditsMadeBeforeItAndIgnoresLaterOnes() {
+        bank.get(2).setContent("Before snapshot");
+        QuestionBank snapshot = bank.snapshot();
+
+        bank.get(2).setContent("After snapshot");
+        bank.get(3).setContent("After snapshot");
+        bank.remove(0);
+
+        assertEquals(QUESTION_COUNT, snapshot.size());
+        assertEquals("Before snapshot", snapshot.get(2).getContent());
+        assertEquals("Question 3", snapshot.get(3).getContent());
+    }
+
+    private QuestionBank writeAndOpen(List<Question> questions) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        long[] fingerprints = new long[questions.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            records.add(codec.encodeQuestion(questions.get(i)));
+            fingerprints[i] = QuestionFingerprint.of(questions.get(i));
+        }
+        File file = folder.newFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            QuestionBank.write(out, records, fingerprints);
+        }
+        return QuestionBank.open(file, codec);
+    }
+}
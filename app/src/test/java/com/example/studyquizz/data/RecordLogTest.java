@@ -0,0 +1,116 @@
+package com.example.studyquizz.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RecordLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private RecordLog log;
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "records.log");
+        log = new RecordLog(file);
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            payloads.add(("record " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        log.appendAll(payloads);
+    }
+
+    @Test
+    public void readsEveryIntactRecord() throws IOException {
+        assertRecords(log.readAll(), 0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void corruptPayloadMidFileIsSkipped() throws IOException {
+        long length = file.length();
+        flipByte(frameStart(2) + 10);
+        assertRecords(log.readAll(), 0, 1, 3, 4);
+        // Nothing after the damaged frame is lost
+        assertEquals(length, file.length());
+    }
+
+    @Test
+    public void corruptLengthMidFileResynchronizes() throws IOException {
+        flipByte(frameStart(1));
+        assertRecords(log.readAll(), 0, 2, 3, 4);
+    }
+
+    @Test
+    public void tornTailIsTruncatedAndAppendsContinue() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - 3);
+        }
+        assertRecords(log.readAll(), 0, 1, 2, 3);
+        assertEquals(frameStart(4), file.length());
+
+        log.append("record 5".getBytes(StandardCharsets.UTF_8));
+        assertRecords(log.readAll(), 0, 1, 2, 3, 5);
+    }
+
+    @Test
+    public void zeroFilledTailIsTruncated() throws IOException {
+        long length = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Power loss may leave the file extended with zeros the data never reached
+            raf.setLength(length + 4096);
+        }
+        assertRecords(log.readAll(), 0, 1, 2, 3, 4);
+        assertEquals(length, file.length());
+
+        log.append("record 5".getBytes(StandardCharsets.UTF_8));
+        assertRecords(log.readAll(), 0, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void zeroRunMidFileIsSkipped() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(frameStart(2));
+            raf.write(new byte[16]);
+        }
+        assertRecords(log.readAll(), 0, 1, 3, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyRecordIsRefused() throws IOException {
+        log.append(new byte[0]);
+    }
+
+    // Every record in setUp has an 8-byte payload after the 8-byte frame header
+    private static long frameStart(int index) {
+        return index * 16L;
+    }
+
+    private void flipByte(long offset) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(offset);
+            int b = raf.read();
+            raf.seek(offset);
+            raf.write(b ^ 0x40);
+        }
+    }
+
+    private static void assertRecords(List<byte[]> records, int... expected) {
+        assertEquals(expected.length, records.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(("record " + expected[i]).getBytes(StandardCharsets.UTF_8), records.get(i));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.studyquizz.util;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.studyquizz.model.Question;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class CsvQuestionSourceTest {
+    @Test
+    public void numericLastOptionStaysAnOptionWithoutAnswerHeader() {
+        int answerColumn = CsvQuestionSource.answerColumn(Arrays.asList("question", "a", "b", "c"));
+        Question question = CsvQuestionSource.toQuestion(Arrays.asList("Which is smallest?", "3", "2", "1*"), answerColumn);
+        assertEquals(Arrays.asList("3", "2", "1"), question.getOptions());
+        assertEquals(2, question.getCorrectIndex());
+    }
+
+    @Test
+    public void answerColumnNamedInHeaderIsNotAnOption() {
+        int answerColumn = CsvQuestionSource.answerColumn(Arrays.asList("Câu hỏi", "A", "B", "C", "Đáp án"));
+        assertEquals(4, answerColumn);
+        Question question = CsvQuestionSource.toQuestion(Arrays.asList("Which is smallest?", "3", "2", "1", "C"), answerColumn);
+        assertEquals(Arrays.asList("3", "2", "1"), question.getOptions());
+        assertEquals(2, question.getCorrectIndex());
+    }
+
+    @Test
+    public void answerColumnCanBeNumberOrText() {
+        Question byNumber = CsvQuestionSource.toQuestion(Arrays.asList("Q", "x", "y", "2"), 3);
+        assertEquals(1, byNumber.getCorrectIndex());
+        Question byText = CsvQuestionSource.toQuestion(Arrays.asList("Q", "x", "y", "Y"), 3);
+        assertEquals(1, byText.getCorrectIndex());
+    }
+}
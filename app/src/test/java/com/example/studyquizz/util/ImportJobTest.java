@@ -0,0 +1,30 @@
+package com.example.studyquizz.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.tom_roush.pdfbox.pdmodel.encryption.InvalidPasswordException;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.zip.ZipException;
+
+public class ImportJobTest {
+    @Test
+    public void failuresOfDifferentKindsReadDifferently() {
+        String encrypted = ImportJob.describeFailure(new InvalidPasswordException("Cannot decrypt PDF"));
+        String notDocx = ImportJob.describeFailure(new DocxReader.FormatException("Not a DOCX file", null));
+        String corruptZip = ImportJob.describeFailure(new ZipException("invalid END header"));
+
+        assertNotEquals(encrypted, notDocx);
+        assertEquals(notDocx, corruptZip);
+    }
+
+    @Test
+    public void otherFailuresKeepTheirMessage() {
+        assertEquals("Error: End-of-File, expected line",
+                ImportJob.describeFailure(new IOException("Error: End-of-File, expected line")));
+        assertEquals("IOException", ImportJob.describeFailure(new IOException()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.studyquizz.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.QuestionType;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class JsonLinesQuestionSourceTest {
+    private static Question parse(String line) {
+        return JsonLinesQuestionSource.toQuestion(JsonParser.parseString(line).getAsJsonObject());
+    }
+
+    @Test
+    public void answerByLetterNumberOrText() {
+        assertEquals(1, parse("{\"question\":\"Q\",\"options\":[\"x\",\"y\",\"z\"],\"answer\":\"B\"}").getCorrectIndex());
+        assertEquals(2, parse("{\"question\":\"Q\",\"options\":[\"x\",\"y\",\"z\"],\"answer\":3}").getCorrectIndex());
+        assertEquals(0, parse("{\"content\":\"Q\",\"options\":[\"x\",\"y\"],\"answer\":\"X\"}").getCorrectIndex());
+    }
+
+    @Test
+    public void correctIndexIsZeroBasedOrALetter() {
+        assertEquals(2, parse("{\"question\":\"Q\",\"options\":[\"x\",\"y\",\"z\"],\"correctIndex\":2}").getCorrectIndex());
+        assertEquals(1, parse("{\"question\":\"Q\",\"options\":[\"x\",\"y\",\"z\"],\"correctIndex\":\"B\"}").getCorrectIndex());
+        // Không nhận ra: câu vẫn nhập, mặc định đáp án đầu
+        assertEquals(0, parse("{\"question\":\"Q\",\"options\":[\"x\",\"y\"],\"correctIndex\":\"?\"}").getCorrectIndex());
+    }
+
+    @Test
+    public void typeOverridesGuessAndMissingFieldsSkipLine() {
+        Question question = parse("{\"question\":\"Q\",\"options\":[\"Đúng\",\"Sai\"],\"type\":\"multiple_choice\"}");
+        assertEquals(QuestionType.MULTIPLE_CHOICE, question.getType());
+        assertEquals(Arrays.asList("Đúng", "Sai"), question.getOptions());
+        assertNull(parse("{\"question\":\"Q\"}"));
+    }
+}
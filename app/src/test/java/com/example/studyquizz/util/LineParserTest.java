@@ -0,0 +1,198 @@
+package com.example.studyquizz.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.studyquizz.model.Question;
+import com.example.studyquizz.model.QuestionType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class LineParserTest {
+    private static List<Question> parse(String... lines) {
+        return parse(Arrays.asList(lines));
+    }
+
+    private static List<Question> parse(List<String> lines) {
+        List<Question> questions = new ArrayList<>();
+        ImportHelper.LineParser parser = new ImportHelper.LineParser(new ImportHelper.Listener() {
+            @Override
+            public void onProgress(int done, int total) {
+            }
+
+            @Override
+            public void onQuestion(Question question) {
+                questions.add(question);
+            }
+        });
+        for (String line : lines) {
+            parser.accept(line);
+        }
+        parser.finish();
+        return questions;
+    }
+
+    @Test
+    public void letterOptionsWithParenthesisOrDot() {
+        List<Question> questions = parse("Câu 1: Thủ đô của Việt Nam", "A) Hà Nội", "b. Huế", "C)Đà Nẵng");
+        assertEquals(1, questions.size());
+        assertEquals(Arrays.asList("Hà Nội", "Huế", "Đà Nẵng"), questions.get(0).getOptions());
+    }
+
+    @Test
+    public void questionStartsWithQuestionOrEndsWithQuestionMark() {
+        List<Question> questions = parse("Question 2: Largest planet", "A) Jupiter", "B) Mars",
+                "Which is red?", "A) Mars", "B) Venus");
+        assertEquals(2, questions.size());
+        assertEquals("Question 2: Largest planet", questions.get(0).getContent());
+        assertEquals("Which is red?", questions.get(1).getContent());
+    }
+
+    @Test
+    public void questionMarkerStripsFirstDot() {
+        // Giữ hành vi cũ: bỏ dấu "." đầu tiên của dòng câu hỏi
+        assertEquals("Câu 3 Trái đất?", parse("Câu 3. Trái đất?", "A) Tròn").get(0).getContent());
+    }
+
+    @Test
+    public void bulletOptions() {
+        List<Question> questions = parse("Câu 4: Chọn số chẵn", "- 3", "+ 4*");
+        // Như parser cũ, dấu gạch đầu dòng được giữ trong đáp án
+        assertEquals(Arrays.asList("- 3", "+ 4"), questions.get(0).getOptions());
+        assertEquals(1, questions.get(0).getCorrectIndex());
+    }
+
+    @Test
+    public void correctMarkers() {
+        assertEquals(1, parse("Câu 5?", "A) x", "B) y*").get(0).getCorrectIndex());
+        assertEquals(2, parse("Câu 5?", "A) x", "B) y", "C) z [x]").get(0).getCorrectIndex());
+        assertEquals(0, parse("Câu 5?", "A) x (đúng)", "B) y").get(0).getCorrectIndex());
+        assertEquals(Arrays.asList("x (đúng)", "y"), parse("Câu 5?", "A) x (đúng)", "B) y").get(0).getOptions());
+        // Không đánh dấu: đáp án đầu
+        assertEquals(0, parse("Câu 5?", "A) x", "B) y").get(0).getCorrectIndex());
+    }
+
+    @Test
+    public void trueFalseOptions() {
+        Question question = parse("Câu 6: Nước sôi ở 100 độ", "A) Đúng", "B) Sai*").get(0);
+        assertEquals(QuestionType.TRUE_FALSE, question.getType());
+        assertEquals(1, question.getCorrectIndex());
+    }
+
+    @Test
+    public void linesBeforeFirstQuestionAndQuestionsWithoutOptionsAreDropped() {
+        List<Question> questions = parse("Đề thi học kỳ", "A) lạc", "Câu 7?", "Câu 8?", "A) có");
+        assertEquals(1, questions.size());
+        assertEquals("Câu 8?", questions.get(0).getContent());
+    }
+
+    @Test
+    public void redRunCheckOnlyAcceptsLetterOptions() {
+        ImportHelper.LineParser parser = new ImportHelper.LineParser(null);
+        assertTrue(parser.isLetterOptionLine("A) x"));
+        assertTrue(parser.isLetterOptionLine("d. x"));
+        assertFalse(parser.isLetterOptionLine("- x"));
+        assertFalse(parser.isLetterOptionLine("+ x"));
+        assertFalse(parser.isLetterOptionLine("E) x"));
+        assertTrue(parser.isOptionLine("- x"));
+    }
+
+    /**
+     * Before/after benchmark: the same generated document through the parser as it was
+     * before the patterns were precompiled and through the current one. The output must
+     * be identical; the timings are printed for comparison.
+     */
+    @Test
+    public void matchesLegacyParserOnGeneratedDocument() {
+        List<String> lines = generateDocument(new Random(18), 20_000);
+        // Warm-up so both run compiled
+        for (int i = 0; i < 3; i++) {
+            parse(lines);
+            LegacyParser.parse(lines);
+        }
+        long start = System.nanoTime();
+        List<Question> current = parse(lines);
+        long currentNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<Question> legacy = LegacyParser.parse(lines);
+        long legacyNanos = System.nanoTime() - start;
+
+        assertEquals(legacy.size(), current.size());
+        for (int i = 0; i < legacy.size(); i++) {
+            assertEquals(legacy.get(i).getContent(), current.get(i).getContent());
+            assertEquals(legacy.get(i).getOptions(), current.get(i).getOptions());
+            assertEquals(legacy.get(i).getCorrectIndex(), current.get(i).getCorrectIndex());
+            assertEquals(legacy.get(i).getType(), current.get(i).getType());
+        }
+        System.out.printf(Locale.ROOT, "LineParser: %d lines, legacy %.1f ms, current %.1f ms%n",
+                lines.size(), legacyNanos / 1e6, currentNanos / 1e6);
+    }
+
+    private static List<String> generateDocument(Random random, int questionCount) {
+        String[] questionForms = {"Câu %d: Nội dung số %d", "Question %d. Topic %d", "Điều gì xảy ra ở bước %d (%d)?"};
+        String[] optionForms = {"%s) Lựa chọn %d", "%s. lựa chọn %d", "- gạch đầu dòng %d", "+ cộng %d"};
+        List<String> lines = new ArrayList<>();
+        for (int q = 0; q < questionCount; q++) {
+            lines.add(String.format(Locale.ROOT, questionForms[random.nextInt(questionForms.length)], q, random.nextInt(100)));
+            int optionCount = 2 + random.nextInt(3);
+            int correct = random.nextInt(optionCount);
+            for (int o = 0; o < optionCount; o++) {
+                String letter = String.valueOf((char) ((random.nextBoolean() ? 'A' : 'a') + o));
+                String form = optionForms[random.nextInt(optionForms.length)];
+                String line = form.startsWith("%s") ? String.format(Locale.ROOT, form, letter, o) : String.format(Locale.ROOT, form, o);
+                if (o == correct) {
+                    String[] markers = {"*", " [x]", " (đúng)"};
+                    line += markers[random.nextInt(markers.length)];
+                }
+                lines.add(random.nextInt(10) == 0 ? "  " + line + " " : line);
+            }
+        }
+        return lines;
+    }
+
+    // ImportHelper.parseStructuredLines before the patterns were precompiled
+    private static class LegacyParser {
+        static List<Question> parse(List<String> lines) {
+            List<Question> questions = new ArrayList<>();
+            String currentQuestion = null;
+            List<String> options = new ArrayList<>();
+            int correctIndex = -1;
+
+            for (String raw : lines) {
+                String line = raw.trim();
+                boolean looksLikeQuestion = line.toLowerCase(Locale.ROOT).startsWith("câu") ||
+                        line.toLowerCase(Locale.ROOT).startsWith("question") ||
+                        line.endsWith("?");
+                boolean looksLikeOption = line.matches("^[A-Da-d][\\).].*") || line.startsWith("- ") || line.startsWith("+ ");
+
+                if (looksLikeQuestion) {
+                    if (currentQuestion != null && !options.isEmpty()) {
+                        questions.add(ImportHelper.buildQuestion(currentQuestion, options, correctIndex));
+                    }
+                    currentQuestion = line.replaceFirst("^[A-Da-d]\\)|\\.", "").trim();
+                    options = new ArrayList<>();
+                    correctIndex = -1;
+                } else if (looksLikeOption || currentQuestion != null) {
+                    boolean isCorrect = line.contains("*") || line.contains("[x]") || line.toLowerCase(Locale.ROOT).contains("(đúng)");
+                    String cleaned = line.replaceFirst("^[A-Da-d][\\).]\\s*", "").replace("*", "").replace("[x]", "").trim();
+                    options.add(cleaned);
+                    if (isCorrect) {
+                        correctIndex = options.size() - 1;
+                    }
+                }
+            }
+
+            if (currentQuestion != null && !options.isEmpty()) {
+                questions.add(ImportHelper.buildQuestion(currentQuestion, options, correctIndex));
+            }
+            return questions;
+        }
+    }
+}